@@ -1,74 +1,365 @@
+import java.io.IOException;
 import java.lang.Math;
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 /**
  * Write a description of class Agent here.
  *
  * @author (your name)
  * @version (a version number or a date)
  */
-public class Agent
-{   
-    Move bestMove= null;
+public class Agent implements AutoCloseable
+{
+    final static int MAX_PLY = 64;//deepest ply the search can reach.
+
     int agentDepth;
-    
-    int pieceX;
-    int pieceY;
-    int toX;
-    int toY;
-    MoveType type;
+    TranspositionTable table = new TranspositionTable(16);//stores searched positions, kept between moves and shared by all search threads.
+
+    long timeLimit = 1000;//time budget per move in milliseconds.
+    long nodeLimit = 0;//node budget per move, 0 for no limit.
+    volatile long deadline;//time the current search has to stop by.
+    volatile boolean stopSearch;//tells every search thread to stop.
+    volatile boolean pondering;//true while searching on the opponents time, there is no budget until ponderHit() is called.
+    long searchStart;//time the current search started.
+    boolean earlyPonderHit;//set if ponderHit() is called while a ponder search is queued but has not started yet.
+    boolean queuedPonder;//true if the latest search queued with queueSearch() is a ponder search.
+    int queued;//number given to the latest search, queued with queueSearch() or started directly.
+    int started;//number of the running or last search.
+    int stopped;//number of the latest search stop() was called for, a stop before a queued search starts still stops it.
+
+    int threads = 1;//number of search threads, 1 searches on the calling thread only.
+    Searcher main = new Searcher(this, true);//searcher whose move is played.
+    Searcher[] helpers = new Searcher[0];//extra searchers that fill the shared table.
+    ExecutorService pool;//runs the helpers.
+    SearchListener listener;//told about every completed iteration, may be null.
+    SearchStats stats;//what the last search did, null before the first search.
+    EndgameDatabase endgame;//exact results of positions with few pieces, may be null.
+    OpeningBook book;//moves to play without searching in the opening, may be null.
+    Evaluator evaluator = new WeightedEvaluator();//scores the positions at the leaves of the search.
+    boolean quiescence = true;//search on past the nominal depth while a kill is pending.
+    boolean pvs = true;//search all but the first move of a node with a null window.
+    boolean aspiration = true;//search the root with a narrow window around the score of the last iteration.
+    boolean lmr = true;//search late quiet moves less deep first.
+    boolean probCut = false;//cut nodes a shallow search shows are far outside the window.
+    double probCutSlope = 1.03;//deep score = slope * shallow score + offset, with an error of sigma, fitted by ProbCutTuner.
+    double probCutOffset = 0;
+    double probCutSigma = 26;
+    double probCutMargin = 1.5;//sigmas the deep score has to be expected past the window by to cut.
+
     public Agent()
     {
         this.agentDepth = 1;
     }
+    //sets the deepest iteration the agent will search to.
     public void setDepth(int depth){
-        this.agentDepth = depth;
+        this.agentDepth = Math.min(depth, MAX_PLY);
     }
-    
-    public Move successor(Board board){
-        bestMove = null;
-        int alpha = -10000;
-        int beta = 10000;
-        int bestScore = minimax(new Board(board), this.agentDepth, alpha, beta, true);
-        
-        return new Move(bestMove, board);
-    }
-    public int minimax(Board board, int depth, int alpha, int beta, Boolean isWhite){
-        
-        ArrayList<Move> legalMoves = board.getAllMoves();
-        
-        if(depth <= 0 || legalMoves.size() < 1){
-            return board.getHeuristic();
+    //sets the time budget per move in milliseconds.
+    public void setTimeLimit(long milliseconds){
+        this.timeLimit = milliseconds;
+    }
+    //sets the node budget per move, 0 for no limit.
+    public void setNodeLimit(long nodes){
+        this.nodeLimit = nodes;
+    }
+    //replaces the transposition table with an empty one of the given size in MB.
+    public void setHashSize(int megabytes){
+        this.table = new TranspositionTable(megabytes);
+    }
+    //sets the number of search threads. With more than 1 thread the helpers search the same root at staggered depths (lazy SMP) and share
+    //results through the table, with 1 thread the search is deterministic.
+    public void setThreads(int threads){
+        this.threads = Math.max(1, threads);
+        if(pool != null){
+            pool.shutdownNow();
+            pool = null;
         }
-        else if(isWhite){
-            int v = -10000;
-            for(Move m: legalMoves){
-                Move move = new Move(m,new Board(board));
-                
-                int max = minimax(board.getMoveResults(m),depth-1,alpha,beta,!isWhite);
-                if(max > v && this.agentDepth == depth){
-                    
-                    bestMove = move;
-                    
+        helpers = new Searcher[this.threads - 1];
+        for(int i = 0; i < helpers.length; i++){
+            helpers[i] = new Searcher(this, false);
+        }
+        if(helpers.length > 0){
+            pool = Executors.newFixedThreadPool(helpers.length, r -> {
+                Thread t = new Thread(r, "agent-helper");
+                t.setDaemon(true);//helpers never keep the application running.
+                return t;
+            });
+        }
+    }
+    //stops the helper threads, call it when the agent is no longer needed or its threads stay alive with it. The agent can still search
+    //afterwards, with 1 thread.
+    public void close(){
+        setThreads(1);
+    }
+    //sets the endgame database probed during search, null for none.
+    public void setEndgameDatabase(EndgameDatabase endgame){
+        this.endgame = endgame;
+    }
+    //sets the opening book looked up before searching, null for none.
+    public void setOpeningBook(OpeningBook book){
+        this.book = book;
+    }
+    //sets the evaluator that scores the leaves of the search.
+    public void setEvaluator(Evaluator evaluator){
+        this.evaluator = evaluator;
+    }
+    //turns the quiescence search on or off, without it the search stops at the nominal depth even if a kill is pending.
+    public void setQuiescence(boolean quiescence){
+        this.quiescence = quiescence;
+    }
+    //turns principal variation search on or off, without it every move is searched with the full window.
+    public void setPvs(boolean pvs){
+        this.pvs = pvs;
+    }
+    //turns aspiration windows on or off, without them every iteration searches the root with the full window.
+    public void setAspiration(boolean aspiration){
+        this.aspiration = aspiration;
+    }
+    //turns late move reductions on or off, without them every move is searched to the full depth.
+    public void setLmr(boolean lmr){
+        this.lmr = lmr;
+    }
+    //turns ProbCut on or off.
+    public void setProbCut(boolean probCut){
+        this.probCut = probCut;
+    }
+    //sets the line ProbCut guesses the deep score from the shallow score with, as printed by ProbCutTuner.
+    public void setProbCutModel(double slope, double offset, double sigma){
+        this.probCutSlope = slope;
+        this.probCutOffset = offset;
+        this.probCutSigma = sigma;
+    }
+    //sets how many sigmas past the window the deep score has to be expected for ProbCut to cut, higher cuts less but is safer.
+    public void setProbCutMargin(double margin){
+        this.probCutMargin = margin;
+    }
+    //sets an option by name, used by Tournament and EngineServer: depth, time (milliseconds per move), nodes, hash (megabytes), threads, weights
+    //(a WeightedEvaluator weights file), eval (material to count pieces only), quiescence, pvs, aspiration, lmr and probcut (true or false),
+    //probcutMargin (sigmas), book (an OpeningBook file) and endgame (an EndgameDatabase file).
+    public void setOption(String name, String value){
+        switch(name){
+            case "depth": setDepth(Integer.parseInt(value)); break;
+            case "time": setTimeLimit(Long.parseLong(value)); break;
+            case "nodes": setNodeLimit(Long.parseLong(value)); break;
+            case "hash": setHashSize(Integer.parseInt(value)); break;
+            case "threads": setThreads(Integer.parseInt(value)); break;
+            case "weights":
+                try{
+                    setEvaluator(WeightedEvaluator.load(Paths.get(value)));
+                }catch(IOException e){
+                    throw new IllegalArgumentException("Cannot read weights: " + value, e);
                 }
-                v = Math.max(v,max);
-                alpha = Math.max(alpha, v);
-                if(alpha >= beta){
-                    break;
+                break;
+            case "quiescence": setQuiescence(Boolean.parseBoolean(value)); break;
+            case "pvs": setPvs(Boolean.parseBoolean(value)); break;
+            case "aspiration": setAspiration(Boolean.parseBoolean(value)); break;
+            case "lmr": setLmr(Boolean.parseBoolean(value)); break;
+            case "probcut": setProbCut(Boolean.parseBoolean(value)); break;
+            case "probcutMargin": setProbCutMargin(Double.parseDouble(value)); break;
+            case "eval":
+                if(!value.equals("material")){
+                    throw new IllegalArgumentException("Unknown evaluator: " + value);
                 }
+                setEvaluator(new MaterialEvaluator());
+                break;
+            case "book":
+                try{
+                    setOpeningBook(new OpeningBook(Paths.get(value)));
+                }catch(IOException e){
+                    throw new IllegalArgumentException("Cannot read book: " + value, e);
+                }
+                break;
+            case "endgame":
+                try{
+                    setEndgameDatabase(new EndgameDatabase(Paths.get(value)));
+                }catch(IOException e){
+                    throw new IllegalArgumentException("Cannot read endgame database: " + value, e);
+                }
+                break;
+            default: throw new IllegalArgumentException("Unknown agent option: " + name);
+        }
+    }
+    //sets the listener told about the progress of every search, null for none. It is called on the searching thread.
+    public void setListener(SearchListener listener){
+        this.listener = listener;
+    }
+    //stops a running search from another thread, the search returns the move of its last completed iteration. A search queued with
+    //queueSearch() that has not started yet is stopped too, it returns as soon as it starts.
+    public synchronized void stop(){
+        stopped = queued;
+        stopSearch = true;
+        earlyPonderHit = false;//a cancelled ponder search is not played.
+    }
+    //tells the agent a search has been handed to another thread, call it on the thread that will call stop() and ponderHit(). A stop() that
+    //comes before that search starts then still stops it, and a ponderHit() before a ponder search starts makes it start as a normal search.
+    public synchronized void queueSearch(boolean ponder){
+        queued++;
+        queuedPonder = ponder;
+        earlyPonderHit = false;
+    }
+    //used to read the cutoff counters of the last search.
+    public MoveOrdering getMoveOrdering(){
+        return main.ordering;
+    }
+    //used to read the table hit and overwrite counters.
+    public TranspositionTable getTranspositionTable(){
+        return table;
+    }
+    //depth of the last completed iteration of the last search.
+    public int getCompletedDepth(){
+        return main.completedDepth;
+    }
+    //score of the last completed iteration of the last search, higher if white is performing well.
+    public int getScore(){
+        return main.completedScore;
+    }
+    //nodes the main thread searched in the quiescence search in the last search, the leaves and the kills searched past them.
+    public long getQuiescenceNodes(){
+        return main.quiescenceNodes;
+    }
+    //null window searches of the main thread that failed high and were searched again in the last search.
+    public long getPvsResearches(){
+        return main.pvsResearches;
+    }
+    //root searches of the main thread that fell outside the aspiration window and were searched again in the last search.
+    public long getAspirationResearches(){
+        return main.aspirationResearches;
+    }
+    //reduced searches of the main thread that beat alpha and were searched again at full depth in the last search.
+    public long getLmrResearches(){
+        return main.lmrResearches;
+    }
+    //nodes the main thread cut with ProbCut in the last search.
+    public long getProbCuts(){
+        return main.probCuts;
+    }
+    //milliseconds the main thread spent searching again after a failed reduction, null window or aspiration window in the last search.
+    public long getResearchTime(){
+        return main.researchTime / 1000000;
+    }
+    //stats of the last search: nodes, speed, depth, table use, cutoffs, re-searches and iterations. Null before the first search.
+    public SearchStats getSearchStats(){
+        return stats;
+    }
+    //nodes searched by all threads in the last search.
+    public long getNodes(){
+        long total = main.nodes;
+        for(Searcher helper: helpers){
+            total += helper.nodes;
+        }
+        return total;
+    }
+
+    //principal variation of the last completed iteration of the main thread, the best move first.
+    public long[] getPrincipalVariation(){
+        return Arrays.copyOf(main.lastPv, main.lastPvLength);
+    }
+    //deepest ply the main thread has reached in the current or last search.
+    public int getSelDepth(){
+        return main.selDepth;
+    }
+    //the opponents reply expected after the last move played, the second move of its principal variation, or 0 if there is none.
+    public long getPonderMove(){
+        return (main.lastPvLength > 1 ? main.lastPv[1] : 0);
+    }
+
+    //chooses a move for the board, getSearchStats() then tells what the search did.
+    public Move successor(Board board){
+        return board.getMove(search(board.getPosition()));
+    }
+    //searches with iterative deepening until the depth, time or node budget runs out and returns the best move of the last completed iteration.
+    public long search(Position position){
+        return search(position, false);
+    }
+    //searches on the opponents time with no time or node budget, until stop() or ponderHit() is called or the depth is reached.
+    public long ponder(Position position){
+        return search(position, true);
+    }
+    //the opponent played the move being pondered, the search continues as a normal search whose budget started when pondering started. If the
+    //ponder search has already used the budget it stops at once. A ponder hit when no ponder search is running or queued does nothing.
+    public synchronized void ponderHit(){
+        if(!pondering){
+            if(queuedPonder && started != queued){
+                earlyPonderHit = true;//the ponder search has not started yet, it starts as a normal search instead.
             }
-            return v; 
+            return;
         }
-        else{
-            int v = 10000;
-            for(Move m: legalMoves){
-                int min = minimax(board.getMoveResults(m),depth-1,alpha,beta,!isWhite);
-                v = Math.min(v,min);
-                beta = Math.min(beta, v);
-                if(alpha >= beta){
-                    break;
-                }
+        deadline = searchStart + timeLimit;
+        pondering = false;
+    }
+    //gives a new search its number, the one queueSearch() gave it or a new one if it was started directly.
+    private synchronized void claimSearch(){
+        if(started == queued){
+            queued++;//not queued with queueSearch(), a stop() or ponderHit() from before the search does not count.
+            queuedPonder = false;
+            earlyPonderHit = false;
+        }
+        started = queued;
+    }
+    //sets up the budget of a new search.
+    private synchronized void startSearch(boolean ponder){
+        claimSearch();
+        searchStart = System.currentTimeMillis();
+        pondering = ponder && !earlyPonderHit;
+        earlyPonderHit = false;
+        deadline = (pondering ? Long.MAX_VALUE : searchStart + timeLimit);
+        stopSearch = (stopped == started);
+    }
+    private long search(Position position, boolean ponder){
+        SearchStats.SearchEvent event = new SearchStats.SearchEvent();
+        event.begin();
+        //a book move is played at once, there is nothing to ponder in the book.
+        if(book != null && !ponder){
+            long bookMove = book.probe(position);
+            if(bookMove != 0){
+                claimSearch();
+                main.lastPvLength = 0;//no reply is expected after a book move.
+                main.completedDepth = 0;
+                finishSearch(new SearchStats(bookMove), event, false);
+                return bookMove;
             }
-            return v;
+        }
+        long start = System.nanoTime();
+        long probes = table.getProbes();
+        long hits = table.getHits();
+        startSearch(ponder);
+        Future<?>[] running = new Future<?>[helpers.length];
+        for(int i = 0; i < helpers.length; i++){
+            Searcher helper = helpers[i];
+            Position copy = new Position(position);//each thread needs its own position to move pieces on.
+            int startDepth = 1 + (i % 2);//half the helpers search one ply ahead of the main searcher.
+            running[i] = pool.submit(() -> helper.search(copy, startDepth));
+        }
+        long result = main.search(position, 1);
+        stopSearch = true;
+        pondering = false;
+        for(Future<?> f: running){
+            try{
+                f.get();
+            }catch(Exception e){}
+        }
+        finishSearch(new SearchStats(this, result, System.nanoTime() - start, table.getProbes() - probes, table.getHits() - hits), event, ponder);
+        return result;
+    }
+    //keeps the stats of a finished search, writes its JFR event and tells the listener.
+    private void finishSearch(SearchStats stats, SearchStats.SearchEvent event, boolean ponder){
+        this.stats = stats;
+        if(event.shouldCommit()){
+            event.bestMove = Position.moveToString(stats.getBestMove());
+            event.score = stats.getScore();
+            event.depth = stats.getDepth();
+            event.selDepth = stats.getSelDepth();
+            event.nodes = stats.getNodes();
+            event.nodesPerSecond = stats.getNodesPerSecond();
+            event.book = stats.isBookMove();
+            event.ponder = ponder;
+            event.commit();
+        }
+        if(listener != null){
+            listener.searchComplete(stats);
         }
     }
 }
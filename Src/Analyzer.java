@@ -0,0 +1,178 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analyzer searches every position in a file without the javafx user interface, for jobs that need the best move and score of many stored
+ * positions. Positions are read one per line as FEN style strings such as R:W1,2,3:R30,31,K32, blank lines are skipped. They are searched in
+ * parallel, one worker thread per core, each with its own agent, and every result is written as soon as the ones before it have been.
+ *
+ * Each output line is the position, the best move, the score for the player to move (cp n, or mate n when the end of the game is found), the
+ * depth reached and the nodes searched, separated by tabs. A position that cannot be read or searched gets "error" and the reason instead.
+ * Results are written in the order of the input, so a worker that finishes early puts its result in a reorder buffer of -window slots until
+ * the results before it are written. The reader waits for a free slot before handing out the next position, so no more than -window positions
+ * are read but not yet written and memory stays the same however long the input is.
+ *
+ * Agents are set up with comma separated key=value options as in Tournament, see Agent.setOption(). There is no time limit unless one is
+ * given, so each position is searched to the depth or node limit. Each worker keeps its table and move history from one position to the next,
+ * which helps when the positions come from the same games and saves clearing the whole table for every small search. With -clear true they
+ * are cleared before every position, so with threads=1 in the options a result does not depend on which worker searched it or what it searched
+ * before.
+ *
+ * Usage: java Analyzer [-in file] [-out file] [-threads n] [-window n] [-options options] [-endgame file] [-clear true|false]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Analyzer
+{
+    String in = "-";//positions, - for stdin.
+    String out = "-";//results, - for stdout.
+    int threads = Runtime.getRuntime().availableProcessors();
+    int window = 0;//positions read but not yet written, 0 for 64 per thread.
+    String options = "depth=10,hash=4";
+    String endgameFile;//database shared by the agents of all workers, may be null.
+    boolean clear = false;//true to clear the table and move history before every position.
+
+    private EndgameDatabase endgame;
+    private ThreadLocal<Agent> agents;//agent of each worker thread.
+    private Queue<Agent> workerAgents = new ConcurrentLinkedQueue<Agent>();//every agent made, closed at the end.
+    private PrintWriter results;
+    private String[] buffer;//reorder buffer, the result of position n waits in slot n % window.
+    private long written;//number of results written, the next result to write.
+    private Semaphore free;//free slots of the buffer.
+    private AtomicLong nodes = new AtomicLong();//nodes searched by all workers.
+
+    /**
+    * Searches one position with the agent of the calling worker.
+    *
+    * @param line the position as read.
+    * @return String the output line for the position.
+    */
+    private String analyze(String line){
+        try{
+            Agent agent = agents.get();
+            Position position = Position.fromFen(line);
+            if(clear){
+                agent.getTranspositionTable().clear();//results do not depend on the positions the worker searched before.
+                agent.getMoveOrdering().clear();
+            }
+            long move = agent.search(position);
+            int score = (position.getTurn() == PieceColor.WHITE ? agent.getScore() : -agent.getScore());
+            nodes.addAndGet(agent.getNodes());
+            return line + "\t" + Position.moveToString(move) + "\t" + EngineServer.scoreString(score) + "\t" + agent.getCompletedDepth()
+                + "\t" + agent.getNodes();
+        }catch(RuntimeException e){
+            return line + "\terror " + e;
+        }
+    }
+    /**
+    * Puts the result of a position in the buffer, then writes every result that is next in order and frees its slot.
+    *
+    * @param index position of the line in the input.
+    * @param result the output line.
+    */
+    private synchronized void complete(long index, String result){
+        buffer[(int)(index % buffer.length)] = result;
+        int slot = (int)(written % buffer.length);
+        while(buffer[slot] != null){
+            results.println(buffer[slot]);
+            buffer[slot] = null;
+            written++;
+            free.release();
+            slot = (int)(written % buffer.length);
+        }
+    }
+    /**
+    * Reads, searches and writes all the positions, then prints how many were searched and how fast to stderr.
+    */
+    public void run() throws Exception{
+        try(Agent check = new Agent()){
+            Tournament.configure(check, options);//bad options stop the run here, before any position is read.
+        }
+        endgame = (endgameFile == null ? null : new EndgameDatabase(Paths.get(endgameFile)));
+        agents = ThreadLocal.withInitial(() -> {
+            Agent agent = new Agent();
+            workerAgents.add(agent);
+            agent.setTimeLimit(Long.MAX_VALUE / 2);//only the depth or node limit stops the search, unless the options set a time.
+            Tournament.configure(agent, options);
+            if(endgame != null){
+                agent.setEndgameDatabase(endgame);
+            }
+            return agent;
+        });
+        buffer = new String[window > 0 ? window : 64 * threads];
+        free = new Semaphore(buffer.length);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long read = 0;
+        try(BufferedReader reader = (in.equals("-") ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(in), StandardCharsets.UTF_8));
+            PrintWriter writer = new PrintWriter(new BufferedWriter(out.equals("-") ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)))){
+            results = writer;
+            String line;
+            while((line = reader.readLine()) != null){
+                String fen = line.trim();
+                if(fen.isEmpty()){
+                    continue;
+                }
+                free.acquire();//waits while the buffer is full.
+                long index = read++;
+                pool.execute(() -> {
+                    String result = fen + "\terror search failed";
+                    try{
+                        result = analyze(fen);
+                    }finally{
+                        complete(index, result);//every position frees its slot, or the reader and the results after it would wait forever.
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }finally{
+            pool.shutdownNow();
+            for(Agent agent: workerAgents){
+                agent.close();
+            }
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        System.err.println(String.format("positions %d  time %.1f s  positions/s %.1f  nodes %d  nps %.0f", read, seconds, read / seconds,
+            nodes.get(), nodes.get() / seconds));
+    }
+
+    /**
+    * Runs an analysis.
+    *
+    * @param args the options listed in the class description.
+    */
+    public static void main(String[] args) throws Exception{
+        Analyzer a = new Analyzer();
+        for(int i = 0; i + 1 < args.length; i += 2){
+            String value = args[i + 1];
+            switch(args[i]){
+                case "-in": a.in = value; break;
+                case "-out": a.out = value; break;
+                case "-threads": a.threads = Integer.parseInt(value); break;
+                case "-window": a.window = Integer.parseInt(value); break;
+                case "-options": a.options = value; break;
+                case "-endgame": a.endgameFile = value; break;
+                case "-clear": a.clear = Boolean.parseBoolean(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        a.run();
+    }
+}
@@ -1,21 +1,18 @@
-import javafx.scene.Group;
-import java.lang.Cloneable;
-import javafx.scene.Node;
-import javafx.scene.paint.Color;
-import javafx.scene.control.Alert;//used for alerting the user after unallowed click/move attempt.
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 /**
  * Board represents the board and all associated data, it is designed so that the main Checkers class can interact with this only to effect the displayed
- * pieces and tiles on the board.
+ * pieces and tiles on the board. Board holds only game state and uses no javafx, so the rules and the agent run without a display. BoardView draws
+ * the board, it watches the board through a BoardListener and redraws only what each change touched.
  *
  * @author Slade Brooks
  * @version 1
  */
 public class Board{
-    final static int TILE_SIZE = 100;//static tilesize, static to reduce parameters needed for other methods.
     private Tile[][] board = new Tile[8][8];//The board itself where the tiles are stored.
-    public Group tiles = new Group();//left as public so UI can interact with directly.
-    public Group pieces = new Group();////left as public so UI can interact with directly.
+    private ArrayList<Piece> pieces = new ArrayList<Piece>();//every piece still on the board.
+    private ArrayList<BoardListener> listeners = new ArrayList<BoardListener>();//told about every change, copies of the board have none.
     private PieceColor currentTurn;//current player turn.
     private ArrayList<Move> availableMoves = new ArrayList<Move>();//used to set available moves for a piece for highlighting tiles.
     private Piece killerPiece = null;// used if the last move was a kill move
@@ -32,11 +29,10 @@ public class Board{
             for(int x = 0; x < 8; x++){
                 Tile tile = new Tile(oldBoard.getTile(x,y));//creates copy of each tile in oldBoard.
                 board[x][y] = tile;
-                tiles.getChildren().add(tile);//adds tile to group
                 if(oldBoard.getTile(x,y).hasPiece()){//if piece exists on tile, creates copy and sets it appropriately.
                     Piece piece = new Piece(oldBoard.getTile(x,y).getPiece());
                     board[x][y].addPiece(piece);
-                    pieces.getChildren().add(piece);
+                    pieces.add(piece);
                 }
             }
         }
@@ -50,23 +46,51 @@ public class Board{
         //iterates through each square in the 8 x 8 board.
         for(int y = 0; y < 8; y++){
             for(int x = 0; x < 8; x++){
-                Tile tile = new Tile(x,y,(((x+y)%2) == 1 ? Color.BLACK : Color.WHITE));//creates a new tile using formula to set colour.
+                Tile tile = new Tile(x,y);//creates a new tile, its colour comes from its co-ords.
                 board[x][y] = tile;
-                tiles.getChildren().add(tile);
                 if(((y == 0 || y == 2) && ((x+1) % 2) == 0)||((y == 1) && ((x+2) % 2) == 0)){//checks formula to create white pieces appropriately.
                     Piece piece = new Piece(PieceType.PIECE, PieceColor.WHITE, x,y);
                     board[x][y].addPiece(piece);
-                    pieces.getChildren().add(piece);
+                    pieces.add(piece);
                 }
                 else if(((y == 7 || y == 5) && ((x+2) % 2) == 0)||((y == 6) && ((x+1) % 2) == 0)){//checks formula to create red pieces appropriately.
                     Piece piece = new Piece(PieceType.PIECE, PieceColor.RED, x, y);
                     board[x][y].addPiece(piece);
-                    pieces.getChildren().add(piece);
+                    pieces.add(piece);
                 }
             }
         }
     }
     /**
+    * Constructor used when creating a Board from a Position, used to display positions created by the agent internals.
+    *
+    * @param  position the position to be displayed.
+    */
+    public Board(Position position){
+        currentTurn = position.getTurn();
+        
+        for(int y = 0; y < 8; y++){
+            for(int x = 0; x < 8; x++){
+                Tile tile = new Tile(x,y);
+                board[x][y] = tile;
+                int square = Position.square(x,y);
+                if(square < 0){
+                    continue;//light tiles never hold pieces.
+                }
+                int bit = 1 << square;
+                if(((position.getRed() | position.getWhite()) & bit) != 0){
+                    Piece piece = new Piece(((position.getKings() & bit) != 0 ? PieceType.KING : PieceType.PIECE),
+                        ((position.getWhite() & bit) != 0 ? PieceColor.WHITE : PieceColor.RED), x, y);
+                    board[x][y].addPiece(piece);
+                    pieces.add(piece);
+                }
+            }
+        }
+        if(position.getKillerSquare() >= 0){
+            killerPiece = getPiece(Position.squareX(position.getKillerSquare()), Position.squareY(position.getKillerSquare()));
+        }
+    }
+    /**
     * Get method returning the current players turn in the form of a PieceColor enum.
     * 
     * @return PieceColor turn.
@@ -90,17 +114,86 @@ public class Board{
     public Tile getTile(int x, int y){
         return board[x][y];
     }
+    /**
+    * Get method for the pieces still on the board.
+    *
+    * @return List<Piece> the pieces, the list cannot be changed.
+    */
+    public List<Piece> getPieces(){
+        return Collections.unmodifiableList(pieces);
+    }
+    /**
+    * Adds a listener told about every change to the board.
+    *
+    * @param listener the listener to add.
+    */
+    public void addListener(BoardListener listener){
+        listeners.add(listener);
+    }
+    /**
+    * Removes a listener added with addListener().
+    *
+    * @param listener the listener to remove.
+    */
+    public void removeListener(BoardListener listener){
+        listeners.remove(listener);
+    }
     
     /**
-    * Moves piece after checking move legality.Used by players to move pieces. Applies delay to the movePiece() method because this will only be used 
-    * to take a turn not for internals of the agent. try catch statement used because the delay needs to throw exception to be used.
+    * Creates a Position holding the same pieces, turn and multi kill state as this Board, used by the agent to search without the Board objects.
+    * 
+    * @return Position copy of the game state.
+    */
+    public Position getPosition(){
+        int red = 0;
+        int white = 0;
+        int kings = 0;
+        for(Piece piece: pieces){
+            int bit = 1 << Position.square(piece.getX(), piece.getY());
+            if(piece.getColor() == PieceColor.WHITE){
+                white |= bit;
+            }
+            else{
+                red |= bit;
+            }
+            if(piece.type() == PieceType.KING){
+                kings |= bit;
+            }
+        }
+        int killerSquare = (killerPiece == null ? -1 : Position.square(killerPiece.getX(), killerPiece.getY()));
+        return new Position(red, white, kings, currentTurn, killerSquare);
+    }
+    /**
+    * Converts a packed move from Position into a Move linked to the Pieces and Tiles of this Board. A multi kill move is converted into its first
+    * kill, the board then asks for the rest of the move one kill at a time.
+    * 
+    * @param move the packed move.
+    * @return Move the matching move on this board, or null if there is no move.
+    */
+    public Move getMove(long move){
+        if(move == 0){
+            return null;
+        }
+        move = getPosition().getHops(move)[0];
+        Piece piece = getPiece(Position.squareX(Position.from(move)), Position.squareY(Position.from(move)));
+        Tile to = getTile(Position.squareX(Position.to(move)), Position.squareY(Position.to(move)));
+        if(!Position.isCapture(move)){
+            return new Move(MoveType.NORMAL, piece, to);
+        }
+        int kill = Integer.numberOfTrailingZeros(Position.captured(move));
+        return new Move(MoveType.KILL, piece, to, getTile(Position.squareX(kill), Position.squareY(kill)));
+    }
+    /**
+    * Moves piece after checking move legality.Used by players to move pieces. This runs on the javafx application thread so no delay is applied,
+    * the pause between the agents kills is handled by Checkers without blocking the thread. try catch statement used because movePiece() can
+    * throw an exception.
     * 
     * @param move the move that needs to be performed.
     */
     public void moveIfLegal(Move move) {
         if(move.isLegal(currentTurn)){
             try{
-                movePiece(move,true);
+                movePiece(move,false);
             }catch(Exception e){}   
         }
     }
@@ -115,29 +208,35 @@ public class Board{
         int x = move.getPiece().getX();//gets pieces x.
         int y = move.getPiece().getY();//gets pieces y
         
-        int toX = (int)move.getTo().getX();//gets destinations x.
-        int toY = (int)move.getTo().getY();//gets destinations y.
-        
-        //if piece reaches either end of board it is set to king.
-        if(toY == 0 || toY == 7){
-            move.getPiece().setKing();
-        }
+        int toX = move.getTo().getXInt();//gets destinations x.
+        int toY = move.getTo().getYInt();//gets destinations y.
         
         move.getPiece().setXY(toX,toY);//sets pieces new coords
         this.getTile(x,y).removePiece();//removes piece from old tile
         move.getTo().addPiece(move.getPiece());//places piece on new tile
-        move.getPiece().move(move.getPiece().getX(),move.getPiece().getY());//move piece on GUI, gets piece from Move then uses the pieces move().
+        for(BoardListener l: listeners){
+            l.pieceMoved(move.getPiece(), x, y);//move piece on GUI.
+        }
+        
+        //if piece reaches either end of board it is set to king.
+        if(toY == 0 || toY == 7){
+            crown(move.getPiece());
+        }
         
         //different game logic is the move is a kill move, ensuring multi kill moves are possible.
         if(move.getType() == MoveType.KILL) {
             if(sleep){
                 Thread.sleep(500);//used to delay between kills when not performing agents internals.
             }
-            if(move.getKill().getPiece().type() == PieceType.KING){
-                move.getPiece().setKing();//implements regicide, becomes king if king is killed.
+            Piece killed = move.getKill().getPiece();
+            if(killed.type() == PieceType.KING){
+                crown(move.getPiece());//implements regicide, becomes king if king is killed.
             }
-            pieces.getChildren().remove(move.getKill().getPiece());//removes killed piece from group
+            pieces.remove(killed);//removes killed piece from the board
             move.getKill().removePiece();//removes killed piece from tile
+            for(BoardListener l: listeners){
+                l.pieceRemoved(killed);
+            }
             killerPiece = move.getPiece();//ensures that double kill possibility is checked.
             if(getAllMoves().size() < 1){
                currentTurn = (currentTurn == PieceColor.WHITE ? PieceColor.RED : PieceColor.WHITE); //changes turn only if another kill is not possible.
@@ -150,6 +249,35 @@ public class Board{
             killerPiece = null;
         }
     }
+    /**
+    * Makes a piece a king and tells the listeners, if it is not a king already.
+    */
+    private void crown(Piece piece){
+        if(piece.type() != PieceType.KING){
+            piece.setKing();
+            for(BoardListener l: listeners){
+                l.pieceCrowned(piece);
+            }
+        }
+    }
+    /**
+    * Highlights or unhighlights a tile and tells the listeners.
+    */
+    private void setHighlighted(Tile tile, boolean highlighted){
+        tile.setHighlighted(highlighted);
+        for(BoardListener l: listeners){
+            l.tileHighlightChanged(tile);
+        }
+    }
+    /**
+    * Highlights or unhighlights a piece and tells the listeners.
+    */
+    private void setHighlighted(Piece piece, boolean highlighted){
+        piece.setHighlighted(highlighted);
+        for(BoardListener l: listeners){
+            l.pieceHighlightChanged(piece);
+        }
+    }
     
     /**
     * Creates a deep copy of a board then performes a deep copied move on the board. This is only used by agent internals as a gamestate node.
@@ -178,18 +306,18 @@ public class Board{
     public int getHeuristic(){
         int score = 0;
         //counts through all children adding 1 point for a white PIECE and 2 for a white KING, -1 point for red piece and -2 for red king.
-        for(Node p: pieces.getChildren()){
-            if(((Piece)p).getColor() == PieceColor.WHITE){
-                if(((Piece)p).type() == PieceType.KING){
+        for(Piece p: pieces){
+            if(p.getColor() == PieceColor.WHITE){
+                if(p.type() == PieceType.KING){
                     score++;
                 }
                 score++;
             }
-            if(((Piece)p).getColor() == PieceColor.RED){
-                if(((Piece)p).type() == PieceType.KING){
+            if(p.getColor() == PieceColor.RED){
+                if(p.type() == PieceType.KING){
                     score--;
                 }
-                score++;
+                score--;
             }
         }
         return score;
@@ -208,7 +336,7 @@ public class Board{
         for(Move m: allMoves){
             if(m.getPiece() == piece){
                 availableMoves.add(m);//if that move starts with the chosen piece then move is added to available moves.
-                m.getTo().highlight();//highlights the tile of the move.
+                setHighlighted(m.getTo(), true);//highlights the tile of the move.
             }
             
         }
@@ -224,8 +352,7 @@ public class Board{
         PieceColor col = this.currentTurn;
         ArrayList<Move> killMoves = new ArrayList<Move>();//where possible kill moves are stored
         ArrayList<Move> normalMoves = new ArrayList<Move>();
-        for(Node p: pieces.getChildren()){//iterates through all node pieces.
-            Piece piece = (Piece)p;//castes the node to a piece.
+        for(Piece piece: pieces){//iterates through all pieces.
             //checks if piece matches current turn and if the game is midway through a multi kill move.
             if(col == piece.getColor() && (killerPiece == null ||piece == killerPiece)){
                 //this if statement handles white moves or kings moving backwards.
@@ -295,17 +422,17 @@ public class Board{
     }
     /**
     * This method performs the logic for the board recieving a mouse click and creates an appropriate error message if the click is to move illegaly.
-    * 
+    * The message is returned for the view to show.
     * 
     * @param x board co-ordinate of the click.
     * @param y board -co-ordinate of the click.
+    * @return String message for the player if the click was not allowed, otherwise null.
     */
-    public void recieveMouseClick(int x, int y){
-        //Thread.sleep(300);
+    public String recieveMouseClick(int x, int y){
         Tile tileClicked = board[x][y];
         //if no moves are highlighted and no piece to move on tile
         if(tileClicked.getPiece() == null && availableMoves.size() < 1){
-            new Alert(Alert.AlertType.ERROR, "No piece to move on this tile.").showAndWait();//informs player.
+            return "No piece to move on this tile.";//informs player.
         }
         //player clicks on empty tile after clicking on own piece to move to tile.
         else if(tileClicked.getPiece() == null && availableMoves.size() > 0){
@@ -327,16 +454,16 @@ public class Board{
             }
             //move isnt legal so player is informed.
             else{
-                new Alert(Alert.AlertType.ERROR, "Cannot move piece to that tile, select highlighted tile or a new piece to move.").showAndWait();
+                return "Cannot move piece to that tile, select highlighted tile or a new piece to move.";
             }
         }
         //if no available moves shown and user clicks on enemy piece.
         else if(tileClicked.getPiece().getColor() != PieceColor.RED && availableMoves.size() < 1){
-            new Alert(Alert.AlertType.ERROR, "This is not your piece, click on a red piece during your turn to see moves.").showAndWait();
+            return "This is not your piece, click on a red piece during your turn to see moves.";
         }
         //clicks on enemy piece after highlighting available moves.
         else if(tileClicked.getPiece().getColor() != PieceColor.RED && availableMoves.size() > 0){
-            new Alert(Alert.AlertType.ERROR, "Invalid move location, click on one of the highlighted tiles to move or select a new piece.").showAndWait();
+            return "Invalid move location, click on one of the highlighted tiles to move or select a new piece.";
         }
         //player clicks on own piece, available moves are highlighted for that piece.
         else if(tileClicked.getPiece().getColor() == PieceColor.RED ){
@@ -345,14 +472,14 @@ public class Board{
             getAvailableMoves(tileClicked.getPiece());
             
         }
-        
+        return null;
     }
     /**
     * This method un highlights all the destination tiles in available moves for a piece when the piece is either moved or a new piece is selected.
     */
     private void unHighlightAvailable(){
         for(Move m:availableMoves){
-            m.getTo().unHighlight();
+            setHighlighted(m.getTo(), false);
         }
     }
     /**
@@ -363,11 +490,11 @@ public class Board{
     public boolean winCheck(){
         boolean whiteWin = true;
         boolean redWin = true;
-        for(Node p: pieces.getChildren()){
-            if(((Piece)p).getColor() == PieceColor.WHITE){
+        for(Piece p: pieces){
+            if(p.getColor() == PieceColor.WHITE){
                 redWin = false;
             }
-            if(((Piece)p).getColor() == PieceColor.RED){
+            if(p.getColor() == PieceColor.RED){
                 whiteWin = false;
             }
         }
@@ -384,7 +511,7 @@ public class Board{
     public void highlightMovablePieces(){
         ArrayList<Move> allMoves = getAllMoves();
         for(Move m: allMoves){
-            m.getPiece().highlight();
+            setHighlighted(m.getPiece(), true);
         }
     }
     /**
@@ -393,7 +520,7 @@ public class Board{
     public void unHighlightPieces(){
        ArrayList<Move> allMoves = getAllMoves();
         for(Move m: allMoves){
-            m.getPiece().unHighlight();
+            setHighlighted(m.getPiece(), false);
         } 
     }
     
@@ -0,0 +1,42 @@
+/**
+ * Used to watch a Board for changes, the board calls it on the thread that changed it after every change. BoardView uses it to update only the
+ * nodes that changed.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public interface BoardListener
+{
+    /**
+    * Called when a piece has moved, the piece holds its new co-ords.
+    *
+    * @param piece the piece moved.
+    * @param fromX x co-ord the piece moved from.
+    * @param fromY y co-ord the piece moved from.
+    */
+    void pieceMoved(Piece piece, int fromX, int fromY);
+    /**
+    * Called when a piece has been killed and taken off the board.
+    *
+    * @param piece the piece taken.
+    */
+    void pieceRemoved(Piece piece);
+    /**
+    * Called when a piece has become a king.
+    *
+    * @param piece the piece crowned.
+    */
+    void pieceCrowned(Piece piece);
+    /**
+    * Called when a piece is highlighted or unhighlighted.
+    *
+    * @param piece the piece changed.
+    */
+    void pieceHighlightChanged(Piece piece);
+    /**
+    * Called when a tile is highlighted or unhighlighted.
+    *
+    * @param tile the tile changed.
+    */
+    void tileHighlightChanged(Tile tile);
+}
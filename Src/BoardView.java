@@ -0,0 +1,89 @@
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Ellipse;
+import javafx.scene.shape.Rectangle;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * BoardView draws a Board with javafx. It makes a rectangle for every tile and a stack of ellipses for every piece once, then watches the board
+ * as a BoardListener and only changes the nodes of the tiles and pieces each change touches. Changes must be made to the board on the javafx
+ * application thread while it is shown.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class BoardView extends Pane implements BoardListener
+{
+    final static int TILE_SIZE = 100;//size of a tile in pixels.
+
+    private Rectangle[][] tiles = new Rectangle[8][8];//node of each tile.
+    private Map<Piece, StackPane> pieces = new IdentityHashMap<Piece, StackPane>();//node of each piece on the board.
+
+    /**
+    * Constructor used for creating a view of a board, the view is updated as the board changes.
+    *
+    * @param  board the board to draw.
+    */
+    public BoardView(Board board){
+        for(int y = 0; y < 8; y++){
+            for(int x = 0; x < 8; x++){
+                Rectangle rectangle = new Rectangle(TILE_SIZE, TILE_SIZE);
+                rectangle.relocate(x * TILE_SIZE, y * TILE_SIZE);
+                tiles[x][y] = rectangle;
+                getChildren().add(rectangle);
+                tileHighlightChanged(board.getTile(x, y));//sets the colour.
+            }
+        }
+        for(Piece piece: board.getPieces()){
+            StackPane node = new StackPane();
+            Ellipse ellipse = new Ellipse(30, 30);//the bottom piece itself.
+            node.getChildren().add(ellipse);
+            pieces.put(piece, node);
+            getChildren().add(node);
+            pieceMoved(piece, piece.getX(), piece.getY());
+            pieceHighlightChanged(piece);
+            if(piece.type() == PieceType.KING){
+                pieceCrowned(piece);
+            }
+        }
+        setPrefSize(8 * TILE_SIZE, 8 * TILE_SIZE);
+        board.addListener(this);
+    }
+
+    /**
+    * Moves the node of a piece over its new tile.
+    */
+    public void pieceMoved(Piece piece, int fromX, int fromY){
+        pieces.get(piece).relocate(piece.getX() * TILE_SIZE + 25, piece.getY() * TILE_SIZE + 25);
+    }
+    /**
+    * Takes the node of a killed piece off the view.
+    */
+    public void pieceRemoved(Piece piece){
+        getChildren().remove(pieces.remove(piece));
+    }
+    /**
+    * Puts a golden crown on top of a piece that became a king.
+    */
+    public void pieceCrowned(Piece piece){
+        Ellipse crown = new Ellipse(10, 10);//crown is smaller than origional piece ellipse.
+        crown.setFill(Color.GOLD);
+        pieces.get(piece).getChildren().add(crown);
+    }
+    /**
+    * Colours a piece green while it is highlighted, otherwise in its own colour.
+    */
+    public void pieceHighlightChanged(Piece piece){
+        Ellipse ellipse = (Ellipse)pieces.get(piece).getChildren().get(0);
+        ellipse.setFill(piece.isHighlighted() ? Color.GREEN : (piece.getColor() == PieceColor.WHITE ? Color.WHITE : Color.RED));
+    }
+    /**
+    * Colours a tile green while it is highlighted, otherwise black or white.
+    */
+    public void tileHighlightChanged(Tile tile){
+        tiles[tile.getXInt()][tile.getYInt()].setFill(tile.isHighlighted() ? Color.GREEN : (tile.isDark() ? Color.BLACK : Color.WHITE));
+    }
+}
@@ -15,10 +15,15 @@ import javafx.scene.control.Alert;
 import javafx.scene.layout.Pane;
 import javafx.scene.control.Button;
 import javafx.event.EventHandler;
+import javafx.application.Platform;
+
+//search thread imports
+import java.util.concurrent.CompletableFuture;
 
 //file reading imports
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.Path;
 import javafx.scene.input.MouseEvent;
 
 /**
@@ -31,6 +36,12 @@ import javafx.scene.input.MouseEvent;
 public class Checkers extends Application{
     Board board = new Board();
     Agent agent = new Agent();
+    SearchService searchService = new SearchService(agent);//runs the agents search off the javafx thread.
+    CompletableFuture<Long> agentMove = null;//the agents search while it is running.
+    long[] agentHops = null;//kills of the agents multi kill move still to be played, one at a time.
+    int agentHop = 0;//next kill in agentHops to play.
+    long agentWaitUntil = 0;//time in nanoseconds before the agent can move again, used to pause between kills.
+    Text status = new Text();//shows the progress of the agents search.
     
     /**
     * Start method used in application, is overriden. Takes the Stage, sets it up and impliments a game loop in it.
@@ -48,8 +59,8 @@ public class Checkers extends Application{
         {
             @Override
             public void handle(long arg0) 
-            {   //checks the board for a winner and prints the winner confirmation if one exists
-                if(board.winCheck()){
+            {   //checks the board for a winner and prints the winner confirmation if one exists, a player with no moves left has lost.
+                if(board.winCheck() || (agentHops == null && board.getPosition().getAllMoves().length == 0)){
                     //new Alert(Alert.AlertType.CONFIRMATION, "Winner.").showAndWait();
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
                     alert.setTitle("WINNER!");
@@ -59,16 +70,71 @@ public class Checkers extends Application{
                     alert.showAndWait();
                     primaryStage.close();
                 }   
-                //if no winner and agents turn then implement agents turn.
-                else if(board.getTurn() == PieceColor.WHITE && !board.winCheck()){
-                    Move agentMove = agent.successor(board);
-                    board.moveIfLegal(agentMove);
+                //on the players turn the agent ponders, searching the reply it expects while the player thinks.
+                else if(board.getTurn() == PieceColor.RED && agentMove == null && !searchService.isPondering()){
+                    searchService.ponder(board.getPosition());
+                }
+                //the rest of the agents multi kill move is played one kill at a time, without searching again.
+                else if(agentHops != null && arg0 >= agentWaitUntil){
+                    playAgentHop();
+                }
+                //if no winner and agents turn then start the agents search, the move is made on this thread when the search completes.
+                else if(board.getTurn() == PieceColor.WHITE && agentMove == null && agentHops == null && arg0 >= agentWaitUntil){
+                    agentMove = searchService.search(board.getPosition());
+                    agentMove.whenCompleteAsync((move, error) -> {
+                        agentMove = null;//always cleared so the game loop carries on, a search with no move leaves white with no moves.
+                        if(error != null){
+                            System.out.println("Agent search failed: " + error);
+                            agentWaitUntil = System.nanoTime() + 1000000000L;//waits before searching again.
+                        }
+                        else if(move != null && move != 0){
+                            agentHops = board.getPosition().getHops(move);
+                            agentHop = 0;
+                            playAgentHop();
+                        }
+                    }, Platform::runLater);
                 }
             }
         };
+        //the agent uses the endgame database if one has been generated, see EndgameGenerator.
+        Path endgame = Paths.get("endgame.db");
+        if(Files.exists(endgame)){
+            try{
+                agent.setEndgameDatabase(new EndgameDatabase(endgame));
+            }catch(Exception e){System.out.println(e);}
+        }
+        //the agent uses the evaluation weights if a weights file has been written, see Tuner.
+        Path weights = Paths.get("weights.txt");
+        if(Files.exists(weights)){
+            try{
+                agent.setEvaluator(WeightedEvaluator.load(weights));
+            }catch(Exception e){System.out.println(e);}
+        }
+        //the agent plays from the opening book if one has been generated, see OpeningBookGenerator.
+        Path book = Paths.get("book.bin");
+        if(Files.exists(book)){
+            try{
+                agent.setOpeningBook(new OpeningBook(book));
+            }catch(Exception e){System.out.println(e);}
+        }
+        //shows the depth, score and nodes of each completed iteration of the agents search.
+        searchService.setListener((depth, score, bestMove, nodes) ->
+            Platform.runLater(() -> status.setText("Agent depth " + depth + "  score " + score + "  nodes " + nodes)));
         agentTurn.start();
     }
     /**
+    * Plays the next kill of the agents move, or the whole move if it is not a multi kill move, and waits half a second before the one after it.
+    */
+    private void playAgentHop(){
+        board.moveIfLegal(board.getMove(agentHops[agentHop++]));
+        if(agentHop < agentHops.length){
+            agentWaitUntil = System.nanoTime() + 500000000L;//delay between kills.
+        }
+        else{
+            agentHops = null;
+        }
+    }
+    /**
     * Creates the content for the UI, this is a part of the application implementation and required for this way of using javafx. This method creates
     * a flowpane containing a Pane representing the board and buttons with correct utility implemented.
     *
@@ -84,23 +150,23 @@ public class Checkers extends Application{
         Button medium = createDifficultyButton("Difficulty:Medium", 2);//sets agent depth to 2.
         Button easy = createDifficultyButton("Difficulty:Easy", 1);//sets agent depth to 1.
         
-        Pane grid = new Pane();//contains the board tiles and pieces
-        grid.getChildren().add(board.tiles);
-        grid.getChildren().add(board.pieces);
-        grid.setPrefSize(800,800);
+        BoardView grid = new BoardView(board);//draws the board tiles and pieces, updated as the board changes.
         //below when a board tile is clicked, the click co-ords are sent to board to proccess.
         grid.setOnMouseClicked(e ->{
-            int x = (int)(e.getSceneX()/100);//x co-ord of click.
-            int y = (int)(e.getSceneY()/100);//y co-ord of click.
+            int x = (int)(e.getSceneX()/BoardView.TILE_SIZE);//x co-ord of click.
+            int y = (int)(e.getSceneY()/BoardView.TILE_SIZE);//y co-ord of click.
             //only sends clicks if there isnt a winner.
             if(!board.winCheck()){
-                board.recieveMouseClick(x,y);//send click.
+                String message = board.recieveMouseClick(x,y);//send click.
+                if(message != null){
+                    new Alert(Alert.AlertType.ERROR, message).showAndWait();//informs player of a click that is not allowed.
+                }
             }
         });
         
        
         window.getChildren().add(grid);//ads board to window
-        window.getChildren().addAll(rules,help,easy,medium,hard);//adds buttons to window
+        window.getChildren().addAll(rules,help,easy,medium,hard,status);//adds buttons and search status to window
         return window;
     }
     
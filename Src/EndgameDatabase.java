@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EndgameDatabase looks up the exact result of positions with few pieces in a file made by EndgameGenerator. The file is memory mapped so it is
+ * never loaded into the heap, a probe reads a single byte.
+ *
+ * Positions are stored with white to move only, a position with red to move is turned round 180 degrees with the colours swapped first (colour
+ * symmetry). Left to right mirroring is not used because it maps the dark tiles onto light ones. The positions of each material balance (a slice)
+ * are numbered by placing white men, red men, white kings and red kings in turn, see index().
+ *
+ * Each stored byte is 0 for a draw, d &gt; 0 if the player to move wins in d turns, and -(d + 1) if the player to move loses in d turns. A multi kill
+ * move counts as one turn. Generation stops after MAX_DISTANCE rounds, so a position that is only won or lost in more than 126 turns is stored
+ * as a draw.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class EndgameDatabase
+{
+    final static int MAGIC = 0x434B4442;//"CKDB", first int of every database file.
+    final static int MAX_PIECES = 12;//most pieces of one kind in a slice.
+    final static int WIN_SCORE = 5000;//score of a won position before the distance is taken off, far above any heuristic value.
+    final static int UNKNOWN = Integer.MIN_VALUE;//returned by probe() when the position is not in the database.
+    final static int MAX_DISTANCE = 126;//longest distance stored, longer results are draws.
+    final static int WIN_BOUND = WIN_SCORE - MAX_DISTANCE - 1;//scores past this, and not past Searcher.WIN_BOUND, are database results.
+
+    final static long[][] BINOMIAL = new long[33][33];//BINOMIAL[n][k] is n choose k.
+    static{
+        for(int n = 0; n <= 32; n++){
+            BINOMIAL[n][0] = 1;
+            for(int k = 1; k <= n; k++){
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private int maxPieces;//largest number of pieces of any position in the file.
+    private int[] sliceIds = new int[(MAX_PIECES + 1) * (MAX_PIECES + 1) * (MAX_PIECES + 1) * (MAX_PIECES + 1)];//slice number by material, -1 if missing.
+    private MappedByteBuffer[] slices;//the values of each slice.
+    private LongAdder probes = new LongAdder();//number of probes of positions small enough to be in the database, by every thread of the agent.
+    private LongAdder hits = new LongAdder();//number of probes that found their position.
+
+    /**
+    * Constructor used for opening a database file.
+    *
+    * @param  file the file written by EndgameGenerator.
+    */
+    public EndgameDatabase(Path file) throws IOException{
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 16));
+            if(header.getInt(0) != MAGIC){
+                throw new IOException("Not an endgame database: " + file);
+            }
+            maxPieces = header.getInt(4);
+            int count = header.getInt(8);
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 16, count * 16L);
+            Arrays.fill(sliceIds, -1);
+            slices = new MappedByteBuffer[count];
+            for(int i = 0; i < count; i++){
+                int wm = table.get(i * 16);
+                int wk = table.get(i * 16 + 1);
+                int rm = table.get(i * 16 + 2);
+                int rk = table.get(i * 16 + 3);
+                long offset = table.getLong(i * 16 + 4);
+                int size = table.getInt(i * 16 + 12);
+                sliceIds[sliceKey(wm, wk, rm, rk)] = i;
+                slices[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);//the mapping stays valid after the channel is closed.
+            }
+        }
+    }
+
+    /**
+    * Returns the key used to find a slice by its material.
+    */
+    static int sliceKey(int wm, int wk, int rm, int rk){
+        return ((wm * (MAX_PIECES + 1) + wk) * (MAX_PIECES + 1) + rm) * (MAX_PIECES + 1) + rk;
+    }
+    /**
+    * Returns the number of indexes in a slice, some are unused because men of both colours can be placed on the same square.
+    *
+    * @return long size of the slice.
+    */
+    static long sliceSize(int wm, int wk, int rm, int rk){
+        int free = 32 - wm - rm;
+        return BINOMIAL[28][wm] * BINOMIAL[28][rm] * BINOMIAL[free][wk] * BINOMIAL[free - wk][rk];
+    }
+    /**
+    * Returns the colex rank of the squares of mask, counting only the squares in allowed.
+    */
+    private static long rank(int mask, int allowed){
+        long r = 0;
+        int i = 1;
+        while(mask != 0){
+            int sq = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            r += BINOMIAL[Integer.bitCount(allowed & ((1 << sq) - 1))][i++];
+        }
+        return r;
+    }
+    /**
+    * Returns the squares out of allowed that have the given colex rank, the reverse of rank().
+    */
+    private static int unrank(long r, int k, int allowed){
+        int mask = 0;
+        int n = Integer.bitCount(allowed);
+        for(int i = k; i > 0; i--){
+            int o = n - 1;
+            while(BINOMIAL[o][i] > r){
+                o--;
+            }
+            r -= BINOMIAL[o][i];
+            n = o;
+            //finds the o-th square of allowed.
+            int a = allowed;
+            for(int j = 0; j < o; j++){
+                a &= a - 1;
+            }
+            mask |= Integer.lowestOneBit(a);
+        }
+        return mask;
+    }
+    /**
+    * Returns the index of a white to move position in its slice. White men are placed on squares 0-27, red men on squares 4-31 (men on the far
+    * row are always kings), then white kings and red kings on the squares left.
+    *
+    * @return long index in the slice.
+    */
+    static long index(int white, int red, int kings){
+        int wmMask = white & ~kings;
+        int rmMask = red & ~kings;
+        int wkMask = white & kings;
+        int rkMask = red & kings;
+        int free = ~(wmMask | rmMask);
+        int freeCount = Integer.bitCount(free);
+        int wk = Integer.bitCount(wkMask);
+        long idx = rank(wmMask, 0x0FFFFFFF);
+        idx = idx * BINOMIAL[28][Integer.bitCount(rmMask)] + rank(rmMask >>> 4, 0x0FFFFFFF);
+        idx = idx * BINOMIAL[freeCount][wk] + rank(wkMask, free);
+        idx = idx * BINOMIAL[freeCount - wk][Integer.bitCount(rkMask)] + rank(rkMask, free & ~wkMask);
+        return idx;
+    }
+    /**
+    * Builds the white to move position with the given index in a slice, the reverse of index().
+    *
+    * @return Position the position, or null if the index places two men on one square.
+    */
+    static Position position(long idx, int wm, int wk, int rm, int rk){
+        int free = 32 - wm - rm;
+        long rkRank = idx % BINOMIAL[free - wk][rk];
+        idx /= BINOMIAL[free - wk][rk];
+        long wkRank = idx % BINOMIAL[free][wk];
+        idx /= BINOMIAL[free][wk];
+        long rmRank = idx % BINOMIAL[28][rm];
+        long wmRank = idx / BINOMIAL[28][rm];
+        int wmMask = unrank(wmRank, wm, 0x0FFFFFFF);
+        int rmMask = unrank(rmRank, rm, 0x0FFFFFFF) << 4;
+        if((wmMask & rmMask) != 0){
+            return null;
+        }
+        int freeMask = ~(wmMask | rmMask);
+        int wkMask = unrank(wkRank, wk, freeMask);
+        int rkMask = unrank(rkRank, rk, freeMask & ~wkMask);
+        return new Position(rmMask | rkMask, wmMask | wkMask, wkMask | rkMask, PieceColor.WHITE, -1);
+    }
+    /**
+    * Returns the white, red and kings masks of a position turned so that the player to move is white.
+    *
+    * @return int[] white, red and kings masks.
+    */
+    static int[] normalise(Position position){
+        if(position.getTurn() == PieceColor.WHITE){
+            return new int[]{position.getWhite(), position.getRed(), position.getKings()};
+        }
+        //turning the board round 180 degrees maps square s to 31 - s, which reverses the bits.
+        return new int[]{Integer.reverse(position.getRed()), Integer.reverse(position.getWhite()), Integer.reverse(position.getKings())};
+    }
+    /**
+    * Converts a stored byte into a score for the player to move.
+    *
+    * @return int score, positive if the player to move wins.
+    */
+    static int score(byte value){
+        if(value > 0){
+            return WIN_SCORE - value;
+        }
+        if(value < 0){
+            return -(WIN_SCORE + value + 1);
+        }
+        return 0;
+    }
+
+    /**
+    * Get method for the largest number of pieces of a position in the database.
+    *
+    * @return int pieces.
+    */
+    public int getMaxPieces(){
+        return maxPieces;
+    }
+    /**
+    * Looks up a position. Positions midway through a multi kill move are never stored.
+    *
+    * @param position the position to look up.
+    * @return int score for white, positive if white wins and closer to WIN_SCORE the faster the win, or UNKNOWN if the position is not stored.
+    */
+    public int probe(Position position){
+        int all = position.getRed() | position.getWhite();
+        if(Integer.bitCount(all) > maxPieces || position.getKillerSquare() >= 0){
+            return UNKNOWN;
+        }
+        probes.increment();
+        boolean flip = position.getTurn() == PieceColor.RED;//same as normalise() without creating an array.
+        int white = (flip ? Integer.reverse(position.getRed()) : position.getWhite());
+        int red = (flip ? Integer.reverse(position.getWhite()) : position.getRed());
+        int kings = (flip ? Integer.reverse(position.getKings()) : position.getKings());
+        int wk = Integer.bitCount(white & kings);
+        int rk = Integer.bitCount(red & kings);
+        int id = sliceIds[sliceKey(Integer.bitCount(white) - wk, wk, Integer.bitCount(red) - rk, rk)];
+        if(id < 0){
+            return UNKNOWN;
+        }
+        hits.increment();
+        int score = score(slices[id].get((int)index(white, red, kings)));
+        return (position.getTurn() == PieceColor.WHITE ? score : -score);
+    }
+    /**
+    * Get method for the number of probes of positions small enough to be stored.
+    *
+    * @return long probes.
+    */
+    public long getProbes(){
+        return probes.sum();
+    }
+    /**
+    * Get method for the number of probes that found their position.
+    *
+    * @return long hits.
+    */
+    public long getHits(){
+        return hits.sum();
+    }
+}
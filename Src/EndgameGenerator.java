@@ -0,0 +1,229 @@
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * EndgameGenerator builds the file read by EndgameDatabase by retrograde analysis of every position with up to N pieces, both players having at
+ * least one piece. A player who cannot move loses, as in the rules.
+ *
+ * Slices are solved smallest first so that captures and promotions always lead into slices that are already solved. A slice is solved together
+ * with its colour swapped twin because a normal move leads from one to the other. The slices are solved in rounds: in round d every position won
+ * in d turns (a reply loses in d - 1) or lost in d turns (every reply wins in at most d - 1) is found, so the distances are exact. Positions not
+ * solved when the rounds run out, after EndgameDatabase.MAX_DISTANCE, are draws. Each round is run in parallel over all cores.
+ *
+ * Usage: java EndgameGenerator [pieces] [file]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class EndgameGenerator
+{
+    final static byte UNSOLVED = Byte.MIN_VALUE;//marks positions not solved yet during generation.
+    final static int CHUNK = 4096;//positions per parallel task.
+
+    private int maxPieces;
+    private List<int[]> order = new ArrayList<int[]>();//material of each slice in the order they are solved.
+    private Map<Integer, byte[]> solved = new HashMap<Integer, byte[]>();//values of every solved slice by slice key.
+    private int maxDistance = 0;//longest distance in any solved slice.
+
+    /**
+    * Constructor used for creating a generator for positions with up to maxPieces pieces.
+    *
+    * @param  maxPieces most pieces on the board.
+    */
+    public EndgameGenerator(int maxPieces){
+        this.maxPieces = maxPieces;
+        //fewer pieces first, then fewer men so promotions lead into solved slices.
+        for(int total = 2; total <= maxPieces; total++){
+            for(int men = 0; men <= total; men++){
+                for(int wm = 0; wm <= men; wm++){
+                    int rm = men - wm;
+                    for(int wk = 0; wk <= total - men; wk++){
+                        int rk = total - men - wk;
+                        if(wm + wk > 0 && rm + rk > 0){
+                            order.add(new int[]{wm, wk, rm, rk});
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+    * Solves every slice.
+    */
+    public void generate(){
+        for(int[] m: order){
+            int key = EndgameDatabase.sliceKey(m[0], m[1], m[2], m[3]);
+            if(solved.containsKey(key)){
+                continue;//solved together with its twin.
+            }
+            long start = System.currentTimeMillis();
+            solvePair(m, new int[]{m[2], m[3], m[0], m[1]});
+            System.out.printf("solved %d%d%d%d and twin in %d ms%n", m[0], m[1], m[2], m[3], System.currentTimeMillis() - start);
+        }
+    }
+    /**
+    * Solves a slice and its colour swapped twin together.
+    */
+    private void solvePair(int[] a, int[] b){
+        int keyA = EndgameDatabase.sliceKey(a[0], a[1], a[2], a[3]);
+        int keyB = EndgameDatabase.sliceKey(b[0], b[1], b[2], b[3]);
+        int[][] material = (keyA == keyB ? new int[][]{a} : new int[][]{a, b});
+        byte[][] values = new byte[material.length][];
+        for(int s = 0; s < material.length; s++){
+            values[s] = new byte[(int)EndgameDatabase.sliceSize(material[s][0], material[s][1], material[s][2], material[s][3])];
+            Arrays.fill(values[s], UNSOLVED);
+            solved.put(EndgameDatabase.sliceKey(material[s][0], material[s][1], material[s][2], material[s][3]), values[s]);
+        }
+
+        boolean changed = true;
+        for(int d = 0; d <= EndgameDatabase.MAX_DISTANCE && (changed || d <= maxDistance + 1); d++){
+            changed = false;
+            for(int s = 0; s < material.length; s++){
+                byte[] results = solveRound(material[s], values[s], d);
+                for(int i = 0; i < results.length; i++){
+                    if(results[i] != UNSOLVED){
+                        values[s][i] = results[i];
+                        changed = true;
+                    }
+                }
+            }
+        }
+        //unsolved positions are draws, positions that cannot exist are left as draws too.
+        for(byte[] v: values){
+            for(int i = 0; i < v.length; i++){
+                if(v[i] == UNSOLVED){
+                    v[i] = 0;
+                }
+                maxDistance = Math.max(maxDistance, Math.abs((int)v[i]));
+            }
+        }
+    }
+    /**
+    * Finds the positions of a slice solved in round d. Results are written to a new array so every position in the round sees the values from
+    * the rounds before it only.
+    */
+    private byte[] solveRound(int[] m, byte[] values, int d){
+        byte[] results = new byte[values.length];
+        Arrays.fill(results, UNSOLVED);
+        int chunks = (values.length + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int end = Math.min(values.length, (c + 1) * CHUNK);
+            for(int i = c * CHUNK; i < end; i++){
+                if(values[i] != UNSOLVED){
+                    continue;
+                }
+                Position position = EndgameDatabase.position(i, m[0], m[1], m[2], m[3]);
+                if(position == null){
+                    values[i] = 0;//two men on one square, never probed.
+                    continue;
+                }
+                results[i] = solve(position, d);
+            }
+        });
+        return results;
+    }
+    /**
+    * Solves one white to move position in round d.
+    *
+    * @return byte the value if the position is won or lost in exactly d turns, otherwise UNSOLVED.
+    */
+    private byte solve(Position position, int d){
+        int[] best = new int[]{0, 0, 0};//replies found, replies won by the opponent in at most d - 1 turns, 1 if a reply loses in d - 1.
+        replies(position, d, best);
+        if(best[0] == 0){
+            return (d == 0 ? (byte)-1 : UNSOLVED);//no moves, lost now.
+        }
+        if(d == 0){
+            return UNSOLVED;
+        }
+        if(best[2] == 1){
+            return (byte)d;
+        }
+        if(best[1] == best[0]){
+            return (byte)-(d + 1);
+        }
+        return UNSOLVED;
+    }
+    /**
+    * Follows every move of the player to move, a multi kill move is a single move, and counts the positions reached.
+    */
+    private void replies(Position position, int d, int[] best){
+        for(long m: position.getAllMoves()){
+            long undo = position.movePiece(m);
+            best[0]++;
+            byte v = value(position);//UNSOLVED is negative but never matches a distance.
+            if(v < 0 && -v - 1 == d - 1){
+                best[2] = 1;
+            }
+            else if(v > 0 && v <= d - 1){
+                best[1]++;
+            }
+            position.undoMove(m, undo);
+        }
+    }
+    /**
+    * Looks up a position in the solved slices and the slices being solved.
+    */
+    private byte value(Position position){
+        if(position.getRed() == 0 || position.getWhite() == 0){
+            return -1;//the player to move has no pieces and has lost.
+        }
+        int[] n = EndgameDatabase.normalise(position);
+        int wk = Integer.bitCount(n[0] & n[2]);
+        int rk = Integer.bitCount(n[1] & n[2]);
+        byte[] values = solved.get(EndgameDatabase.sliceKey(Integer.bitCount(n[0]) - wk, wk, Integer.bitCount(n[1]) - rk, rk));
+        return values[(int)EndgameDatabase.index(n[0], n[1], n[2])];
+    }
+    /**
+    * Writes every slice to a file: a header (magic, pieces, slice count), a table of 16 bytes per slice (material, offset, size), then the values.
+    *
+    * @param file the file to write.
+    */
+    public void write(Path file) throws IOException{
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))){
+            out.writeInt(EndgameDatabase.MAGIC);
+            out.writeInt(maxPieces);
+            out.writeInt(order.size());
+            out.writeInt(0);
+            long offset = 16 + order.size() * 16L;
+            for(int[] m: order){
+                int size = (int)EndgameDatabase.sliceSize(m[0], m[1], m[2], m[3]);
+                out.writeByte(m[0]);
+                out.writeByte(m[1]);
+                out.writeByte(m[2]);
+                out.writeByte(m[3]);
+                out.writeLong(offset);
+                out.writeInt(size);
+                offset += size;
+            }
+            for(int[] m: order){
+                out.write(solved.get(EndgameDatabase.sliceKey(m[0], m[1], m[2], m[3])));
+            }
+        }
+    }
+
+    /**
+    * Generates the database.
+    *
+    * @param args optional number of pieces (default 4) and output file (default endgame.db).
+    */
+    public static void main(String[] args) throws IOException{
+        int pieces = (args.length > 0 ? Integer.parseInt(args[0]) : 4);
+        Path file = Paths.get(args.length > 1 ? args[1] : "endgame.db");
+        EndgameGenerator generator = new EndgameGenerator(pieces);
+        generator.generate();
+        generator.write(file);
+        System.out.println("wrote " + file + " (" + Files.size(file) + " bytes)");
+    }
+}
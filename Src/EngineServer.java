@@ -0,0 +1,409 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EngineServer runs the agent as an engine for other programs, such as a front end or a match manager, with a text protocol in the style of UCI.
+ * It needs no javafx. With no arguments it talks over stdin and stdout, with -port it listens on a TCP port of the local machine and every
+ * connection gets its own agent.
+ *
+ * Commands are read on an I/O thread and searches run on a search thread, so commands such as stop and isready are answered while the agent
+ * searches. Moves are written with the squares numbered 1-32 as in a FEN, 11-15 for a normal move and 22x15 or 22x15x6 for a kill move. Scores
+ * are for the player to move, a man is worth about 100.
+ *
+ * uci                              prints the engine name and options, then uciok.
+ * isready                          prints readyok.
+ * setoption name N value V         sets an agent option, see Agent.setOption(). depth, time and nodes set the limits of a plain go.
+ * ucinewgame                       clears the transposition table.
+ * position startpos [moves ...]    sets the position, then plays the moves.
+ * position fen F [moves ...]       the same from a FEN such as R:W1,2,3:R30,31,K32.
+ * go [depth n] [nodes n] [movetime ms] [rtime ms] [wtime ms] [rinc ms] [winc ms] [movestogo n] [infinite] [ponder]
+ *                                  searches the position, printing an info line for every iteration and bestmove at the end. With infinite
+ *                                  or ponder bestmove is only printed after stop or ponderhit.
+ * ponderhit                        the move pondered on was played, the ponder search carries on as a normal search.
+ * stop                             stops the search, bestmove is printed.
+ * quit                             stops the search and ends the session.
+ *
+ * Usage: java EngineServer [-port n]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class EngineServer implements Runnable, SearchListener
+{
+    private BufferedReader in;//commands.
+    private PrintWriter out;//replies, written by the I/O thread and the search thread.
+    private Agent agent = new Agent();
+    private ExecutorService searchThread;//runs the searches one at a time.
+    private Position position = new Position();//position the next go searches.
+
+    private int depth = Agent.MAX_PLY;//limits of a go that gives none, set with setoption.
+    private long time = 1000;
+    private long nodes = 0;
+
+    private boolean searching;//true from go until bestmove is printed.
+    private boolean pondering;//true from go ponder until ponderhit or stop.
+    private boolean rootWhite;//player to move at the root of the running search.
+    private long searchStart;//System.nanoTime() when the running search started.
+    private boolean waitForStop;//true while bestmove has to wait for stop or ponderhit (go infinite or go ponder).
+    private String pendingBestMove;//bestmove of a search that ended while waiting for stop or ponderhit.
+
+    /**
+    * Constructor used for creating a session reading commands from one stream and writing replies to another.
+    *
+    * @param  in commands.
+    * @param  out replies.
+    */
+    public EngineServer(BufferedReader in, PrintWriter out){
+        this.in = in;
+        this.out = out;
+        this.searchThread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "engine-search");
+            t.setDaemon(true);
+            return t;
+        });
+        agent.setListener(this);
+    }
+
+    /**
+    * Reads and runs commands until quit or the end of the input.
+    */
+    public void run(){
+        try{
+            String line;
+            while((line = in.readLine()) != null){
+                line = line.trim();
+                if(line.isEmpty()){
+                    continue;
+                }
+                try{
+                    if(!command(line)){
+                        break;
+                    }
+                }catch(IllegalArgumentException e){
+                    send("info string error " + e.getMessage());
+                }
+            }
+        }catch(IOException e){
+            //the other end went away, the session ends.
+        }
+        agent.stop();
+        searchThread.shutdownNow();
+        agent.close();
+    }
+    /**
+    * Runs one command.
+    *
+    * @return boolean false if the session has to end.
+    */
+    private boolean command(String line){
+        String[] words = line.split("\\s+");
+        switch(words[0]){
+            case "uci":
+                send("id name CheckersBot3000");
+                send("id author Slade Brooks");
+                send("option name depth type spin default " + Agent.MAX_PLY + " min 1 max " + Agent.MAX_PLY);
+                send("option name time type spin default 1000 min 1 max 1000000000");
+                send("option name nodes type spin default 0 min 0 max 1000000000000");
+                send("option name hash type spin default 16 min 1 max 4096");
+                send("option name threads type spin default 1 min 1 max 256");
+                send("option name quiescence type check default true");
+                send("option name pvs type check default true");
+                send("option name aspiration type check default true");
+                send("option name lmr type check default true");
+                send("option name probcut type check default false");
+                send("option name weights type string default <empty>");
+                send("option name book type string default <empty>");
+                send("option name endgame type string default <empty>");
+                send("uciok");
+                return true;
+            case "isready":
+                send("readyok");
+                return true;
+            case "setoption":
+                setOption(words);
+                return true;
+            case "ucinewgame":
+                requireIdle();
+                agent.getTranspositionTable().clear();
+                return true;
+            case "position":
+                requireIdle();
+                setPosition(words);
+                return true;
+            case "go":
+                go(words);
+                return true;
+            case "ponderhit":
+                ponderHit();
+                return true;
+            case "stop":
+                stop();
+                return true;
+            case "quit":
+                return false;
+            default:
+                throw new IllegalArgumentException("unknown command " + words[0]);
+        }
+    }
+    /**
+    * Checks that no search is running, the position and options cannot change under a search.
+    */
+    private synchronized void requireIdle(){
+        if(searching){
+            throw new IllegalArgumentException("the agent is searching, send stop first");
+        }
+    }
+    /**
+    * Reads setoption name N value V, the value may be left out for options that need none.
+    */
+    private void setOption(String[] words){
+        requireIdle();
+        if(words.length < 3 || !words[1].equals("name")){
+            throw new IllegalArgumentException("usage: setoption name N value V");
+        }
+        String name = words[2];
+        String value = (words.length > 4 && words[3].equals("value") ? String.join(" ", Arrays.copyOfRange(words, 4, words.length)) : "");
+        switch(name){
+            case "depth": depth = Math.max(1, Integer.parseInt(value)); break;
+            case "time": time = Long.parseLong(value); break;
+            case "nodes": nodes = Long.parseLong(value); break;
+            default: agent.setOption(name, value);
+        }
+    }
+    /**
+    * Reads position startpos|fen F [moves ...].
+    */
+    private void setPosition(String[] words){
+        int i = 1;
+        Position next;
+        if(words.length > 1 && words[1].equals("startpos")){
+            next = new Position();
+            i = 2;
+        }
+        else if(words.length > 2 && words[1].equals("fen")){
+            StringBuilder fen = new StringBuilder();
+            for(i = 2; i < words.length && !words[i].equals("moves"); i++){
+                fen.append(words[i]);//a FEN holds no spaces, any typed between its fields are dropped.
+            }
+            try{
+                next = Position.fromFen(fen.toString());
+            }catch(RuntimeException e){
+                throw new IllegalArgumentException("bad fen " + fen);
+            }
+        }
+        else{
+            throw new IllegalArgumentException("usage: position startpos|fen F [moves ...]");
+        }
+        if(i < words.length && words[i].equals("moves")){
+            for(i++; i < words.length; i++){
+                long move = next.parseMove(words[i]);
+                if(move == 0){
+                    throw new IllegalArgumentException("illegal move " + words[i]);
+                }
+                next.movePiece(move);
+            }
+        }
+        position = next;
+    }
+    /**
+    * Reads the limits of go and starts the search on the search thread.
+    */
+    private synchronized void go(String[] words){
+        requireIdle();
+        int goDepth = depth;
+        long goNodes = nodes;
+        long goTime = -1;
+        long[] clock = new long[4];//rtime, wtime, rinc, winc.
+        boolean hasClock = false;
+        int movesToGo = 30;//moves the remaining time is shared over when the clock gives no number.
+        boolean limited = false;//true if the go gives a depth or node limit.
+        boolean infinite = false;
+        boolean ponder = false;
+        for(int i = 1; i < words.length; i++){
+            switch(words[i]){
+                case "depth": goDepth = Math.max(1, Integer.parseInt(words[++i])); limited = true; break;//depth 0 would find no move.
+                case "nodes": goNodes = Long.parseLong(words[++i]); limited = true; break;
+                case "movetime": goTime = Long.parseLong(words[++i]); break;
+                case "rtime": clock[0] = Long.parseLong(words[++i]); hasClock = true; break;
+                case "wtime": clock[1] = Long.parseLong(words[++i]); hasClock = true; break;
+                case "rinc": clock[2] = Long.parseLong(words[++i]); break;
+                case "winc": clock[3] = Long.parseLong(words[++i]); break;
+                case "movestogo": movesToGo = Math.max(1, Integer.parseInt(words[++i])); break;
+                case "infinite": infinite = true; break;
+                case "ponder": ponder = true; break;
+                default: throw new IllegalArgumentException("unknown go option " + words[i]);
+            }
+        }
+        rootWhite = position.getTurn() == PieceColor.WHITE;
+        if(infinite){
+            goDepth = Agent.MAX_PLY;
+            goTime = Long.MAX_VALUE / 2;
+        }
+        else if(goTime < 0 && hasClock){
+            //a share of the remaining time and most of the increment, never more than half of what is left.
+            long remaining = clock[rootWhite ? 1 : 0];
+            long increment = clock[rootWhite ? 3 : 2];
+            goTime = Math.max(1, Math.min(remaining / 2, remaining / movesToGo + increment * 3 / 4));
+        }
+        else if(goTime < 0){
+            goTime = (limited ? Long.MAX_VALUE / 2 : time);//a go with only a depth or node limit has no time limit.
+        }
+        agent.setDepth(goDepth);
+        agent.setNodeLimit(goNodes);
+        agent.setTimeLimit(goTime);
+        waitForStop = infinite || ponder;
+        pondering = ponder;
+        pendingBestMove = null;
+        searching = true;
+        searchStart = System.nanoTime();
+        Position root = new Position(position);
+        boolean isPonder = ponder;
+        agent.queueSearch(isPonder);//a stop sent before the search thread starts the search still ends it.
+        searchThread.execute(() -> {
+            String line = "bestmove none";
+            try{
+                long move = (isPonder ? agent.ponder(root) : agent.search(root));
+                line = "bestmove " + Position.moveToString(move);
+                long ponderMove = agent.getPonderMove();
+                if(move != 0 && ponderMove != 0){
+                    line += " ponder " + Position.moveToString(ponderMove);
+                }
+            }catch(RuntimeException e){
+                send("info string error " + e);
+            }
+            finished(line);
+        });
+    }
+    /**
+    * Prints the bestmove of a finished search, or keeps it until stop or ponderhit if the search has to wait for them.
+    */
+    private synchronized void finished(String bestMove){
+        if(waitForStop){
+            pendingBestMove = bestMove;
+        }
+        else{
+            searching = false;
+            send(bestMove);
+            notifyAll();
+        }
+    }
+    /**
+    * Stops the search and waits for it to print its bestmove, so the next command never finds the agent still searching. The search checks the
+    * stop flag every few nodes so this only takes moments.
+    */
+    private synchronized void stop(){
+        agent.stop();
+        pondering = false;
+        release();
+        while(searching){
+            try{
+                wait();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    /**
+    * The move pondered on was played, the ponder search becomes a normal search with the budget it was given.
+    */
+    private synchronized void ponderHit(){
+        if(!pondering){
+            return;//nothing is being pondered.
+        }
+        pondering = false;
+        if(pendingBestMove == null){
+            agent.ponderHit();
+        }
+        release();
+    }
+    /**
+    * Lets the bestmove of the search be printed, at once if the search has already ended.
+    */
+    private void release(){
+        waitForStop = false;
+        if(pendingBestMove != null){
+            searching = false;
+            send(pendingBestMove);
+            pendingBestMove = null;
+        }
+    }
+
+    /**
+    * Prints an info line for every completed iteration, called on the search thread.
+    */
+    public void iterationComplete(int depth, int score, long bestMove, long nodes){
+        long ms = Math.max(1, (System.nanoTime() - searchStart) / 1000000);
+        StringBuilder line = new StringBuilder("info depth ").append(depth).append(" seldepth ").append(agent.getSelDepth());
+        line.append(" score ").append(scoreString(rootWhite ? score : -score));
+        line.append(" nodes ").append(nodes).append(" nps ").append(nodes * 1000 / ms).append(" time ").append(ms).append(" pv");
+        for(long m: agent.getPrincipalVariation()){
+            line.append(' ').append(Position.moveToString(m));
+        }
+        send(line.toString());
+    }
+    /**
+    * Writes a score for the player to move, a won or lost position is written as the moves to the end of the game. For a result found in the
+    * endgame database the moves are counted from the database position the search reached.
+    */
+    static String scoreString(int score){
+        if(Math.abs(score) > Searcher.WIN_BOUND){
+            int moves = (Searcher.WIN_SCORE - Math.abs(score) + 1) / 2;
+            return "mate " + (score > 0 ? moves : -moves);
+        }
+        if(Math.abs(score) > EndgameDatabase.WIN_BOUND){
+            int moves = (EndgameDatabase.WIN_SCORE - Math.abs(score) + 1) / 2;
+            return "mate " + (score > 0 ? moves : -moves);
+        }
+        return "cp " + score;
+    }
+    /**
+    * Writes one line of output, lines from the I/O and search threads are never mixed.
+    */
+    private void send(String line){
+        synchronized(out){
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /**
+    * Runs the server.
+    *
+    * @param args optional -port n to listen on a local TCP port instead of using stdin and stdout.
+    */
+    public static void main(String[] args) throws IOException{
+        if(args.length >= 2 && args[0].equals("-port")){
+            try(ServerSocket server = new ServerSocket(Integer.parseInt(args[1]), 50, InetAddress.getLoopbackAddress())){
+                System.out.println("listening on " + server.getLocalSocketAddress());
+                while(true){
+                    Socket socket = server.accept();
+                    new Thread(() -> {
+                        try(Socket s = socket){
+                            new EngineServer(new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8)),
+                                new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))).run();
+                        }catch(IOException e){
+                            System.out.println(e);
+                        }
+                    }, "engine-session").start();
+                }
+            }
+        }
+        else if(args.length > 0){
+            System.out.println("Usage: java EngineServer [-port n]");
+            return;
+        }
+        new EngineServer(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+            new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))).run();
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Used by the agent to score the positions at the leaves of its search. The part of the score that only depends on which piece stands on which
+ * square is given as tables, Position keeps their sum up to date as pieces move so it does not have to be counted at every leaf. The rest of the
+ * score is worked out in evaluate().
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public interface Evaluator
+{
+    /**
+    * Get method for the value of each piece on each square.
+    *
+    * @return int[][] values of red men, white men, red kings and white kings on squares 0-31, positive values are good for white.
+    */
+    int[][] getPieceSquareTables();
+    /**
+    * Scores a position.
+    *
+    * @param position the position to score, its piece values are set to getPieceSquareTables() if they are not already.
+    * @return int score, higher if white is performing well.
+    */
+    int evaluate(Position position);
+}
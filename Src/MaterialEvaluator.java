@@ -0,0 +1,40 @@
+/**
+ * MaterialEvaluator scores a position by counting pieces only, a man is worth 100 and a king 200. This is Board.getHeuristic() on the
+ * centipawn scale of WeightedEvaluator, so the aspiration window, the ProbCut margins and the book margin mean the same with either evaluator.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class MaterialEvaluator implements Evaluator
+{
+    final static int MAN = 100;
+    final static int KING = 200;
+    final static int[][] VALUES = new int[4][32];//values of red men, white men, red kings and white kings on each square.
+    static{
+        for(int sq = 0; sq < 32; sq++){
+            VALUES[0][sq] = -MAN;
+            VALUES[1][sq] = MAN;
+            VALUES[2][sq] = -KING;
+            VALUES[3][sq] = KING;
+        }
+    }
+
+    /**
+    * Get method for the value of each piece on each square.
+    *
+    * @return int[][] values of red men, white men, red kings and white kings on squares 0-31.
+    */
+    public int[][] getPieceSquareTables(){
+        return VALUES;
+    }
+    /**
+    * Scores a position by its material.
+    *
+    * @param position the position to score.
+    * @return int score, higher if white has more material.
+    */
+    public int evaluate(Position position){
+        position.setPieceValues(VALUES);
+        return position.getHeuristic();
+    }
+}
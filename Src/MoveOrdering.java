@@ -0,0 +1,180 @@
+import java.util.Arrays;
+/**
+ * MoveOrdering sorts the moves of a node before the agent searches them so that alpha beta finds its cutoffs early. Moves are searched in the
+ * order: principal variation move, transposition table move, kill moves (most pieces taken and kings taken first), the two killer moves of the
+ * ply, then normal moves by their history score.
+ *
+ * It also counts how many cutoffs happened and how many were caused by the first, second ... move searched, which shows how well the ordering
+ * works.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class MoveOrdering
+{
+    final static int PV_SCORE = 1 << 30;
+    final static int HASH_SCORE = 1 << 29;
+    final static int CAPTURE_SCORE = 1 << 28;
+    final static int KILLER_SCORE = 1 << 27;
+    final static int HISTORY_MAX = 1 << 26;//history scores are halved once any reaches this, keeping them below the killer scores.
+    final static int CUTOFF_INDEXES = 8;//cutoffs are counted for the first 7 moves, the last count holds every later move.
+
+    private long[][] killers;//two quiet moves per ply that last caused a cutoff.
+    private int[][] history;//score for every from/to pair of quiet moves that caused cutoffs.
+    private int[][] scores;//sort keys for each ply, kept so sorting does not allocate.
+
+    private long cutoffs;//number of nodes that had a cutoff.
+    private long firstMoveCutoffs;//number of those cutoffs caused by the first move searched.
+    private long[] cutoffsByIndex = new long[CUTOFF_INDEXES];//cutoffs by position of the move in the sorted list.
+
+    /**
+    * Constructor used for creating an ordering for searches up to maxPly deep.
+    *
+    * @param  maxPly deepest ply that will be searched.
+    */
+    public MoveOrdering(int maxPly){
+        killers = new long[maxPly + 1][2];
+        history = new int[32][32];
+        scores = new int[maxPly + 1][64];
+    }
+
+    /**
+    * Prepares for a new search. Killers are cleared, history scores are halved so older results count less, and the counters are reset.
+    */
+    public void newSearch(){
+        for(long[] k: killers){
+            k[0] = 0;
+            k[1] = 0;
+        }
+        for(int[] h: history){
+            for(int i = 0; i < h.length; i++){
+                h[i] /= 2;
+            }
+        }
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        Arrays.fill(cutoffsByIndex, 0);
+    }
+    /**
+    * Forgets the history scores, so the next search is ordered as if it were the first. Used between unrelated positions.
+    */
+    public void clear(){
+        for(int[] h: history){
+            Arrays.fill(h, 0);
+        }
+    }
+    /**
+    * Sorts moves best first.
+    *
+    * @param moves the moves of the node.
+    * @param count number of moves in the array to sort.
+    * @param ply distance of the node from the root.
+    * @param position the position the moves are for.
+    * @param entry transposition table data word for the position, or 0.
+    * @param pvMove move of the last principal variation at this ply, or 0.
+    */
+    public void sort(long[] moves, int count, int ply, Position position, long entry, long pvMove){
+        int[] score = scores[ply];
+        for(int i = 0; i < count; i++){
+            score[i] = score(moves[i], ply, position, entry, pvMove);
+        }
+        //insertion sort, move lists are short.
+        for(int i = 1; i < count; i++){
+            long m = moves[i];
+            int s = score[i];
+            int j = i - 1;
+            while(j >= 0 && score[j] < s){
+                moves[j + 1] = moves[j];
+                score[j + 1] = score[j];
+                j--;
+            }
+            moves[j + 1] = m;
+            score[j + 1] = s;
+        }
+    }
+    /**
+    * Returns the sort key of a move.
+    */
+    private int score(long move, int ply, Position position, long entry, long pvMove){
+        if(move == pvMove){
+            return PV_SCORE;
+        }
+        if(TranspositionTable.isMove(entry, move)){
+            return HASH_SCORE;
+        }
+        if(Position.isCapture(move)){
+            int captured = Position.captured(move);
+            return CAPTURE_SCORE + Integer.bitCount(captured) * 64 + Integer.bitCount(captured & position.getKings()) * 8;
+        }
+        if(move == killers[ply][0]){
+            return KILLER_SCORE + 1;
+        }
+        if(move == killers[ply][1]){
+            return KILLER_SCORE;
+        }
+        return history[Position.from(move)][Position.to(move)];
+    }
+    /**
+    * Records a cutoff. Normal moves that cause a cutoff become killer moves for the ply and have their history score raised.
+    *
+    * @param move the move that caused the cutoff.
+    * @param index position of the move in the sorted list.
+    * @param ply distance of the node from the root.
+    * @param depth remaining depth of the node, deeper cutoffs raise the history score more.
+    */
+    public void cutoff(long move, int index, int ply, int depth){
+        cutoffs++;
+        if(index == 0){
+            firstMoveCutoffs++;
+        }
+        cutoffsByIndex[Math.min(index, CUTOFF_INDEXES - 1)]++;
+        if(Position.isCapture(move)){
+            return;
+        }
+        if(killers[ply][0] != move){
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] h = history[Position.from(move)];
+        h[Position.to(move)] += depth * depth;
+        if(h[Position.to(move)] >= HISTORY_MAX){
+            for(int[] row: history){
+                for(int i = 0; i < row.length; i++){
+                    row[i] /= 2;
+                }
+            }
+        }
+    }
+    /**
+    * Get method for the number of cutoffs in the current search.
+    *
+    * @return long cutoffs.
+    */
+    public long getCutoffs(){
+        return cutoffs;
+    }
+    /**
+    * Get method for the number of cutoffs caused by the first move searched.
+    *
+    * @return long cutoffs.
+    */
+    public long getFirstMoveCutoffs(){
+        return firstMoveCutoffs;
+    }
+    /**
+    * Get method for the number of cutoffs caused by the move at each position in the sorted list.
+    *
+    * @return long[] cutoffs of the first, second ... move, the last count holds every move from CUTOFF_INDEXES - 1 on.
+    */
+    public long[] getCutoffsByIndex(){
+        return cutoffsByIndex.clone();
+    }
+    /**
+    * Get method for the share of cutoffs caused by the first move searched.
+    *
+    * @return double rate between 0 and 1.
+    */
+    public double getFirstMoveCutoffRate(){
+        return (cutoffs == 0 ? 0 : (double)firstMoveCutoffs / cutoffs);
+    }
+}
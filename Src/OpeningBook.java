@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * OpeningBook looks up moves for opening positions in a file made by OpeningBookGenerator, so the agent does not search positions it has already searched
+ * deeply offline. The file is memory mapped and holds 16 byte records sorted by position hash: the Zobrist hash, then the packed move with its
+ * weight in the top 16 bits. A position can have several records and one is picked at random by weight so games do not all follow the same line.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class OpeningBook
+{
+    final static int MAGIC = 0x434B424B;//"CKBK", first int of every book file.
+    final static int HEADER = 8;//bytes before the first record.
+    final static int RECORD = 16;//bytes per record.
+    final static long MOVE_MASK = (1L << 48) - 1;//the packed move, the weight is above it.
+
+    private MappedByteBuffer records;//the sorted records.
+    private int count;//number of records.
+    private Random random;//used to pick between book moves.
+    private long hits;//number of probes that found a move.
+
+    /**
+    * Constructor used for opening a book file.
+    *
+    * @param  file the file written by OpeningBookGenerator.
+    * @param  random used to pick between moves of a position, seed it for repeatable games.
+    */
+    public OpeningBook(Path file, Random random) throws IOException{
+        this.random = random;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if(header.getInt(0) != MAGIC){
+                throw new IOException("Not an opening book: " + file);
+            }
+            count = header.getInt(4);
+            records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, (long)count * RECORD);
+        }
+    }
+    /**
+    * Constructor used for opening a book file with an unseeded random.
+    *
+    * @param  file the file written by OpeningBookGenerator.
+    */
+    public OpeningBook(Path file) throws IOException{
+        this(file, new Random());
+    }
+
+    /**
+    * Looks up a position and picks one of its book moves at random, moves with a higher weight are picked more often.
+    *
+    * @param position the position to look up.
+    * @return long packed move, or 0 if the position is not in the book or no book move is legal in it.
+    */
+    public long probe(Position position){
+        long hash = position.getHash();
+        //binary search for the first record of the position.
+        int low = 0;
+        int high = count;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(records.getLong(mid * RECORD) < hash){
+                low = mid + 1;
+            }
+            else{
+                high = mid;
+            }
+        }
+        int total = 0;
+        int end = low;
+        while(end < count && records.getLong(end * RECORD) == hash){
+            total += (int)(records.getLong(end * RECORD + 8) >>> 48);
+            end++;
+        }
+        if(total == 0){
+            return 0;
+        }
+        int pick = random.nextInt(total);
+        for(int i = low; i < end; i++){
+            long data = records.getLong(i * RECORD + 8);
+            pick -= (int)(data >>> 48);
+            if(pick < 0){
+                long move = data & MOVE_MASK;
+                //the hash could belong to another position, so the move is only played if it is legal.
+                for(long m: position.getAllMoves()){
+                    if(m == move){
+                        hits++;
+                        return move;
+                    }
+                }
+                return 0;
+            }
+        }
+        return 0;
+    }
+    /**
+    * Get method for the number of records in the book.
+    *
+    * @return int records.
+    */
+    public int size(){
+        return count;
+    }
+    /**
+    * Get method for the number of probes that returned a move.
+    *
+    * @return long hits.
+    */
+    public long getHits(){
+        return hits;
+    }
+}
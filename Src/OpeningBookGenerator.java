@@ -0,0 +1,122 @@
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * OpeningBookGenerator builds the file read by OpeningBook. Every position reachable from the start in up to N moves is searched: each of its
+ * moves is scored by a deep search of the position after it, and the moves scoring within a margin (in centipawns, a man is 100) of the best
+ * are stored. Better moves get a higher weight so they are played more often, a move a quarter of a man below the best a quarter as often.
+ * Positions reached by different move orders are only searched once.
+ *
+ * Usage: java OpeningBookGenerator [plies] [depth] [margin] [file]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class OpeningBookGenerator
+{
+    final static int QUARTER_SCORE = 25;//each quarter of a man (in centipawns) a move scores below the best quarters its weight.
+
+    private int plies;//moves from the start covered by the book, a multi kill move counts as one.
+    private int margin;//how far below the best score a move can be and still be stored, in centipawns (a man is 100).
+    private Agent agent = new Agent();//searches the moves.
+    private Set<Long> visited = new HashSet<Long>();//hashes of the positions already searched.
+    private List<long[]> records = new ArrayList<long[]>();//hash and packed move with weight of every stored move.
+
+    /**
+    * Constructor used for creating a generator.
+    *
+    * @param  plies moves from the start covered by the book.
+    * @param  depth depth each move is searched to.
+    * @param  margin how far below the best score a move can be and still be stored in centipawns, 0 stores only the best moves.
+    */
+    public OpeningBookGenerator(int plies, int depth, int margin){
+        this.plies = plies;
+        this.margin = margin;
+        agent.setDepth(Math.max(1, depth - 1));//the position after the move is searched.
+        agent.setTimeLimit(Integer.MAX_VALUE);//only the depth ends a search.
+        agent.setHashSize(64);
+    }
+
+    /**
+    * Searches every position up to the number of plies from the start.
+    */
+    public void generate(){
+        walk(new Position(), 0);
+    }
+    /**
+    * Stores the book moves of a position and walks on through every move.
+    */
+    private void walk(Position position, int ply){
+        if(ply >= plies || !visited.add(position.getHash())){
+            return;
+        }
+        long[] moves = position.getAllMoves();
+        if(moves.length == 0){
+            return;
+        }
+        int sign = (position.getTurn() == PieceColor.WHITE ? 1 : -1);//scores are turned to the side of the player to move.
+        int[] scores = new int[moves.length];
+        int best = Integer.MIN_VALUE;
+        for(int i = 0; i < moves.length; i++){
+            Position child = new Position(position);
+            child.movePiece(moves[i]);
+            agent.search(child);
+            scores[i] = sign * agent.getScore();
+            best = Math.max(best, scores[i]);
+        }
+        for(int i = 0; i < moves.length; i++){
+            if(best - scores[i] <= margin){
+                long weight = Math.max(1, Math.round(100 * Math.pow(0.25, (best - scores[i]) / (double)QUARTER_SCORE)));
+                records.add(new long[]{position.getHash(), moves[i] | weight << 48});
+            }
+        }
+        for(long m: moves){
+            long undo = position.movePiece(m);
+            walk(position, ply + 1);
+            position.undoMove(m, undo);
+        }
+    }
+    /**
+    * Writes the records sorted by hash to a file: a header (magic, record count), then 16 bytes per record (hash, move and weight).
+    *
+    * @param file the file to write.
+    */
+    public void write(Path file) throws IOException{
+        records.sort((a, b) -> Long.compare(a[0], b[0]));
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))){
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(records.size());
+            for(long[] r: records){
+                out.writeLong(r[0]);
+                out.writeLong(r[1]);
+            }
+        }
+    }
+
+    /**
+    * Generates the book.
+    *
+    * @param args optional plies (default 4), search depth (default 10), score margin in centipawns (default 10) and output file (default
+    *             book.bin).
+    */
+    public static void main(String[] args) throws IOException{
+        int plies = (args.length > 0 ? Integer.parseInt(args[0]) : 4);
+        int depth = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+        int margin = (args.length > 2 ? Integer.parseInt(args[2]) : 10);
+        Path file = Paths.get(args.length > 3 ? args[3] : "book.bin");
+        long start = System.currentTimeMillis();
+        OpeningBookGenerator generator = new OpeningBookGenerator(plies, depth, margin);
+        generator.generate();
+        generator.write(file);
+        System.out.println("wrote " + generator.records.size() + " moves of " + generator.visited.size() + " positions to " + file
+            + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
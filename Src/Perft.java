@@ -0,0 +1,207 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft counts the leaf nodes of the tree of legal moves to a fixed depth. The counts of a correct move generator are known, so any difference
+ * after a change to the generator shows a bug, and the time taken measures the raw speed of the generator. A multi kill move is one ply, the
+ * same as in the search.
+ *
+ * Divide prints the count below each root move so a wrong count can be traced to the move that causes it. Counts of positions reached by
+ * different move orders can be kept in a hash table, and the root moves can be counted on several threads. With -board the tree is counted a
+ * second time with the Board the game is played on, to check the bitboard generator against it (only for small depths, Board is slow). Board
+ * plays a multi kill move one kill at a time, so its kills are joined back into one ply.
+ *
+ * Usage: java Perft depth [fen] [-divide] [-hash megabytes] [-threads n] [-board]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Perft
+{
+    private long[] keys;//hash of each stored position mixed with its data, see TranspositionTable.
+    private long[] data;//count of each stored position in the high bits and its depth in the low 8 bits.
+    private int mask;//number of entries - 1.
+
+    /**
+    * Constructor used for creating a counter without a hash table.
+    */
+    public Perft(){
+    }
+    /**
+    * Constructor used for creating a counter with a hash table, which can be shared by several threads.
+    *
+    * @param  megabytes size of the table, 0 for none.
+    */
+    public Perft(int megabytes){
+        if(megabytes > 0){
+            int entries = Integer.highestOneBit((int)Math.min(1 << 30, megabytes * (1024L * 1024L) / 16));
+            keys = new long[entries];
+            data = new long[entries];
+            mask = entries - 1;
+        }
+    }
+
+    /**
+    * Counts the leaf nodes below a position. The moves of each ply are generated into a buffer made once per call, so the count measures the
+    * generator alone and can run on several threads at once.
+    *
+    * @param position the position to count from, it is changed during the count but restored at the end.
+    * @param depth plies to count to.
+    * @return long number of positions depth plies from the position, positions with no moves before that are not counted.
+    */
+    public long perft(Position position, int depth){
+        return perft(position, depth, new long[Math.max(1, depth)][Position.MAX_MOVES]);
+    }
+    /**
+    * Counts the leaf nodes below a position, generating the moves of each ply into its own buffer.
+    */
+    private long perft(Position position, int depth, long[][] buffers){
+        if(depth == 0){
+            return 1;
+        }
+        long[] moves = buffers[depth - 1];
+        int moveCount = position.generateMoves(moves);
+        if(depth == 1){
+            return moveCount;
+        }
+        int slot = 0;
+        if(keys != null){
+            //the key is checked against the data read with it, so an entry torn by another thread is never used.
+            slot = (int)position.getHash() & mask;
+            long d = data[slot];
+            if((keys[slot] ^ d) == position.getHash() && (d & 0xFF) == depth){
+                return d >>> 8;
+            }
+        }
+        long count = 0;
+        for(int i = 0; i < moveCount; i++){
+            long undo = position.movePiece(moves[i]);
+            count += perft(position, depth - 1, buffers);
+            position.undoMove(moves[i], undo);
+        }
+        if(keys != null){
+            long d = (count << 8) | depth;
+            data[slot] = d;
+            keys[slot] = position.getHash() ^ d;
+        }
+        return count;
+    }
+    /**
+    * Counts the leaf nodes below each root move, the root moves are shared out between threads.
+    *
+    * @param position the position to count from, it is not changed.
+    * @param depth plies to count to, at least 1.
+    * @param threads number of threads to count on.
+    * @return long[] count below each move of position.getAllMoves(), in the same order.
+    */
+    public long[] divide(Position position, int depth, int threads) throws Exception{
+        long[] moves = position.getAllMoves();
+        long[] counts = new long[moves.length];
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try{
+            Future<?>[] running = new Future<?>[moves.length];
+            for(int i = 0; i < moves.length; i++){
+                int index = i;
+                Position child = new Position(position);//each thread needs its own position to move pieces on.
+                child.movePiece(moves[i]);
+                running[i] = pool.submit(() -> counts[index] = perft(child, depth - 1));
+            }
+            for(Future<?> f: running){
+                f.get();
+            }
+        }finally{
+            pool.shutdown();
+        }
+        return counts;
+    }
+    /**
+    * Counts the leaf nodes below a position using Board, the object model the game is played on.
+    *
+    * @param board the board to count from, it is not changed.
+    * @param depth plies to count to.
+    * @return long number of positions depth plies from the board.
+    */
+    public static long perft(Board board, int depth){
+        if(depth == 0){
+            return 1;
+        }
+        long count = 0;
+        for(Board next: turns(board, board.getTurn(), new HashMap<Long, Board>()).values()){
+            count += perft(next, depth - 1);
+        }
+        return count;
+    }
+    /**
+    * Finds the boards at the end of every turn of the player to move, following every kill of a multi kill move. Kill sequences that end in the
+    * same position are one move in Position so they are kept once.
+    *
+    * @return Map the boards found by the hash of their position.
+    */
+    private static Map<Long, Board> turns(Board board, PieceColor turn, Map<Long, Board> found){
+        for(Move m: board.getAllMoves()){
+            Board next = board.getMoveResults(m);
+            if(next.getTurn() == turn){
+                turns(next, turn, found);//the same piece kills again, the turn is not over.
+            }
+            else{
+                found.putIfAbsent(next.getPosition().getHash(), next);
+            }
+        }
+        return found;
+    }
+
+    /**
+    * Runs perft.
+    *
+    * @param args depth, then optionally a position in FEN (default the start) and the options -divide, -hash megabytes, -threads n and -board.
+    */
+    public static void main(String[] args) throws Exception{
+        if(args.length < 1){
+            System.out.println("Usage: java Perft depth [fen] [-divide] [-hash megabytes] [-threads n] [-board]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        Position position = new Position();
+        boolean divide = false;
+        boolean board = false;
+        int hash = 0;
+        int threads = 1;
+        for(int i = 1; i < args.length; i++){
+            switch(args[i]){
+                case "-divide": divide = true; break;
+                case "-board": board = true; break;
+                case "-hash": hash = Integer.parseInt(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                default: position = Position.fromFen(args[i]);
+            }
+        }
+
+        Perft perft = new Perft(hash);
+        long start = System.nanoTime();
+        long total;
+        if(depth < 1){
+            total = 1;
+        }
+        else{
+            long[] moves = position.getAllMoves();
+            long[] counts = perft.divide(position, depth, threads);
+            total = 0;
+            for(int i = 0; i < moves.length; i++){
+                total += counts[i];
+                if(divide){
+                    System.out.printf("%-6s %12d%n", Position.moveToString(moves[i]), counts[i]);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("perft %d = %d  time %.3f s  %.0f leaves/s%n", depth, total, seconds, total / seconds);
+
+        if(board){
+            long boardCount = perft(new Board(position), depth);
+            System.out.println("board perft " + depth + " = " + boardCount + (boardCount == total ? "  match" : "  MISMATCH"));
+        }
+    }
+}
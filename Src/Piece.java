@@ -1,23 +1,17 @@
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Ellipse;
-
-import java.util.ArrayList;
-
 /**
-*The piece class extends StackPane so that multiple ellipses can be stacked ontop of eachother to represent a King piece.
+* The piece class holds the type, colour and position of a piece on the board. It only holds game state, BoardView draws it.
 *
 * @author      Slade Brooks
 * @version     1
 */
-public class Piece extends StackPane
-{   
-    final int TILE_SIZE = Board.TILE_SIZE;
+public class Piece
+{
     private PieceType type;
     private PieceColor color;
     private int x, y;
-    
-    
+    private boolean highlighted;//true while the piece is shown as movable.
+
+
     /**
     * Constructor used when creating a deep copy from another Piece.
     *
@@ -29,10 +23,10 @@ public class Piece extends StackPane
     /**
     * Constructor used for creating a Piece.
     *
-    * @param  type used to set the x value of the rectangle and the xInt value of the Tile.
-    * @param  color used to set the y value of the rectangle and the yInt value of the Tile.
+    * @param  type type of piece, either PIECE or KING.
+    * @param  color colour of piece, either RED or WHITE.
     * @param  x position of piece in terms of board tiles.
-    * @param  y of type Color, used to fill the rectangles colour.
+    * @param  y position of piece in terms of board tiles.
     */
     public Piece(PieceType type,PieceColor color, int x, int y)
     {
@@ -40,45 +34,16 @@ public class Piece extends StackPane
         this.x = x;//x co ordinate on the board.
         this.y = y;//y co ordinate on the board.
         this.color = color;//colour  of piece, either RED or WHITE
-        
-        this.move(x, y);//sets the piece over the appropriate tile
-
-        Ellipse ellipse = new Ellipse(TILE_SIZE * 0.3, TILE_SIZE * 0.3);//This ellipse represents the bottom piece itself.
-        ellipse.setId("ellipse");//used to lookup the bottom piece(kings crown doesnt need to be looked up).
-        ellipse.setRadiusX(30);
-        ellipse.setRadiusY(30);
-        ellipse.setFill(color == PieceColor.WHITE ? Color.WHITE : Color.RED);//fils the ellipse to match the appropriate PieceColor
-
-        getChildren().addAll(ellipse);//adds the ellipse to the StackPane
-        
-        //Implements king type if type is set as king
-        if(type == PieceType.KING){
-            this.setKing();
-        }
     }
     /**
-    * Sets the piece to type KING and creates a golden ellipse to be placed on the top to distinguish it.
+    * Sets the piece to type KING.
     */
     public void setKing(){
-        //implements king if not already a king.
-        if(this.type != PieceType.KING){
-            this.type = PieceType.KING;//new PieceType.
-            Ellipse crown = new Ellipse(20 * 0.3, 20 * 0.3);//creates crown ellipse.
-            crown.setRadiusX(10);//crown is smaller than origional piece ellipse.
-            crown.setRadiusY(10);
-            crown.setFill(Color.GOLD);//colours crown gold.
-            getChildren().addAll(crown);//adds crown to the Piece stackpane.
-        }
-    }
-    /**
-    * Relocates the stackpane to x,y co-ords on the board.
-    */
-    public void move(int x, int y) {
-        relocate(x * TILE_SIZE + 25, y * TILE_SIZE + 25);
+        this.type = PieceType.KING;
     }
     /**
     * Get method for PieceType enum stored in Piece.
-    * 
+    *
     * @return returns the PieceType of the piece, e.g. PIECE, KING.
     */
     public PieceType type(){
@@ -86,7 +51,7 @@ public class Piece extends StackPane
     }
     /**
     * Set method for the x and y co-ords of the piece.
-    * 
+    *
     * @param x sets pieces x to this.
     * @param y sets pieces y to this.
     */
@@ -96,7 +61,7 @@ public class Piece extends StackPane
     }
     /**
     * Get method for x co-ord of piece on board.
-    * 
+    *
     * @return x int co-ord of piece.
     */
     public int getX(){
@@ -104,7 +69,7 @@ public class Piece extends StackPane
     }
     /**
     * Get method for y co-ord of piece on board.
-    * 
+    *
     * @return y int co-ord of piece.
     */
     public int getY(){
@@ -112,24 +77,26 @@ public class Piece extends StackPane
     }
     /**
     * Get method for PieceColor of the Piece e.g. RED, WHITE.
-    * 
+    *
     * @return PieceColor field.
     */
     public PieceColor getColor(){
         return this.color;
     }
     /**
-    * Looks up the bottom ellipse and colours it green to represent highlighting.
+    * Set method for the highlight of the piece, Board calls this and tells its listeners.
+    *
+    * @param highlighted true to highlight the piece.
     */
-    public void highlight(){
-        Ellipse ellipse = (Ellipse)lookup("#ellipse");
-        ellipse.setFill(Color.GREEN);
+    void setHighlighted(boolean highlighted){
+        this.highlighted = highlighted;
     }
     /**
-    * Used to remove highlighting from a highlighted piece.
+    * Checks if the piece is highlighted.
+    *
+    * @return boolean true if the piece is highlighted.
     */
-    public void unHighlight(){
-        Ellipse ellipse = (Ellipse)lookup("#ellipse");
-        ellipse.setFill((color == PieceColor.WHITE ? Color.WHITE : Color.RED));
+    public boolean isHighlighted(){
+        return highlighted;
     }
 }
@@ -0,0 +1,804 @@
+import java.util.Random;
+
+/**
+ * Position is a compact representation of the game state that does not use any javafx types. The 32 playable tiles are numbered 0-31 row by row
+ * from the top of the board, four per row, and every set of pieces is stored as an int bitmask over those squares. Move generation and capture
+ * detection are done with shifts and masks so the agent can search without building Tiles and Pieces for every node.
+ *
+ * Moves are packed into a long: the low 32 bits hold the mask of captured squares, followed by the from square, the to square and a promotion flag.
+ * A move is a whole turn, a multi kill move is one move from the first square to the last holding every captured square, so the agent searches
+ * one ply per turn. getHops() splits it back into the single kills the Board plays one at a time.
+ *
+ * Each position also keeps a Zobrist hash that is updated with every move and undo, so equal positions reached through different move orders
+ * can be found in the agents TranspositionTable. The heuristic is kept up to date the same way, as a running total of the value of every piece on
+ * its square, so evaluating a leaf does not count the pieces again. The values of each piece on each square come from the agents Evaluator, by
+ * default a man is worth 1 and a king 2.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Position
+{
+    final static int EVEN_ROWS = 0x0F0F0F0F;//squares on rows 0,2,4,6, their dark tiles start at x = 1.
+    final static int ODD_ROWS = 0xF0F0F0F0;//squares on rows 1,3,5,7, their dark tiles start at x = 0.
+    final static int LEFT_EDGE = 0x10101010;//squares on the x = 0 column.
+    final static int RIGHT_EDGE = 0x08080808;//squares on the x = 7 column.
+    final static int TOP_ROW = 0x0000000F;//row y = 0, where red pieces are crowned.
+    final static int BOTTOM_ROW = 0xF0000000;//row y = 7, where white pieces are crowned.
+
+    final static int UP_LEFT = 0;//directions used by shift(), red pieces move up the board and white pieces move down.
+    final static int UP_RIGHT = 1;
+    final static int DOWN_LEFT = 2;
+    final static int DOWN_RIGHT = 3;
+
+    final static long PROMOTION = 1L << 42;//set on moves that crown the moving piece.
+    final static int MAX_MOVES = 64;//size of the array generateMoves() needs.
+
+    private final static long[][] PIECE_KEYS = new long[4][32];//Zobrist keys for red men, white men, red kings and white kings on each square.
+    private final static long[] KILLER_KEYS = new long[32];//Zobrist keys for the square of a piece midway through a multi kill move.
+    private final static long WHITE_KEY;//Zobrist key used when it is whites turn.
+    static{
+        Random random = new Random(20180412L);//fixed seed so hashes are the same every run.
+        for(int i = 0; i < 4; i++){
+            for(int sq = 0; sq < 32; sq++){
+                PIECE_KEYS[i][sq] = random.nextLong();
+            }
+        }
+        for(int sq = 0; sq < 32; sq++){
+            KILLER_KEYS[sq] = random.nextLong();
+        }
+        WHITE_KEY = random.nextLong();
+    }
+    //value of red men, white men, red kings and white kings on each square, indexed like PIECE_KEYS. White pieces count for white.
+    final static int[][] MATERIAL_VALUES = new int[4][32];
+    static{
+        for(int sq = 0; sq < 32; sq++){
+            MATERIAL_VALUES[0][sq] = -1;
+            MATERIAL_VALUES[1][sq] = 1;
+            MATERIAL_VALUES[2][sq] = -2;
+            MATERIAL_VALUES[3][sq] = 2;
+        }
+    }
+    //set with -Dcheckers.debugEval=true to check the running heuristic against a full recount at every evaluation.
+    final static boolean DEBUG_EVAL = Boolean.getBoolean("checkers.debugEval");
+
+    private int red;//all red pieces.
+    private int white;//all white pieces.
+    private int kings;//kings of either colour.
+    private PieceColor currentTurn;//current player turn.
+    private int killerSquare = -1;//square of the piece midway through a multi kill move, -1 if there is none.
+    private long hash;//Zobrist hash of the position.
+    private int[][] pieceValues = MATERIAL_VALUES;//value of each piece on each square, indexed like PIECE_KEYS.
+    private int heuristic;//sum of pieceValues of every piece, see getHeuristic().
+    private long[] hopBuffer;//single kills followed while generating kill moves, made on first use and never copied so threads do not share it.
+
+    /**
+    * Constructor used when creating a copy of another Position.
+    *
+    * @param  position the position to be copied.
+    */
+    public Position(Position position){
+        this.red = position.red;
+        this.white = position.white;
+        this.kings = position.kings;
+        this.currentTurn = position.currentTurn;
+        this.killerSquare = position.killerSquare;
+        this.hash = position.hash;
+        this.pieceValues = position.pieceValues;
+        this.heuristic = position.heuristic;
+    }
+    /**
+    * Constructor used for creating a Position from its bitmasks.
+    *
+    * @param  red mask of squares holding red pieces.
+    * @param  white mask of squares holding white pieces.
+    * @param  kings mask of squares holding kings of either colour.
+    * @param  currentTurn the player to move.
+    * @param  killerSquare square of the piece that must continue a multi kill move, or -1.
+    */
+    public Position(int red, int white, int kings, PieceColor currentTurn, int killerSquare){
+        this.red = red;
+        this.white = white;
+        this.kings = kings;
+        this.currentTurn = currentTurn;
+        this.killerSquare = killerSquare;
+        this.hash = computeHash();
+        this.heuristic = computeHeuristic();
+    }
+    /**
+    * Constructor used when creating a new position with pieces set to the default starting squares.
+    */
+    public Position(){
+        this(0xFFF00000, 0x00000FFF, 0, PieceColor.RED, -1);
+    }
+
+    /**
+    * Creates a Position from a FEN style string such as "W:W1,2,K3:R30,31,32". The first field is the player to move, R or W, and each colour is
+    * given as a list of squares numbered 1-32 (square 0-31 plus one), with a K in front of kings. A multi kill move in progress is not stored.
+    *
+    * @param fen the string to read.
+    * @return Position the position described.
+    * @throws IllegalArgumentException if the player to move is not R or W, a colour is not R or W, a square is not a number from 1 to 32, two
+    *         pieces are on the same square or a man stands on the row where it would have been crowned.
+    */
+    public static Position fromFen(String fen){
+        String[] fields = fen.trim().split(":");
+        String turnField = fields[0].trim();
+        if(!turnField.equalsIgnoreCase("W") && !turnField.equalsIgnoreCase("R")){
+            throw new IllegalArgumentException("Player to move must be R or W: " + fen);
+        }
+        PieceColor turn = (turnField.equalsIgnoreCase("W") ? PieceColor.WHITE : PieceColor.RED);
+        int red = 0;
+        int white = 0;
+        int kings = 0;
+        for(int i = 1; i < fields.length; i++){
+            String field = fields[i].trim();
+            char colour = (field.isEmpty() ? ' ' : Character.toUpperCase(field.charAt(0)));
+            if(colour != 'W' && colour != 'R'){
+                throw new IllegalArgumentException("Colour must be R or W: " + fen);
+            }
+            if(field.length() < 2){
+                continue;//a colour with no pieces.
+            }
+            boolean isWhite = colour == 'W';
+            for(String sq: field.substring(1).split(",")){
+                sq = sq.trim();
+                boolean isKing = sq.startsWith("K") || sq.startsWith("k");
+                int number;
+                try{
+                    number = Integer.parseInt(isKing ? sq.substring(1) : sq);
+                }catch(NumberFormatException e){
+                    throw new IllegalArgumentException("Bad square " + sq + ": " + fen);
+                }
+                if(number < 1 || number > 32){
+                    throw new IllegalArgumentException("Square " + number + " is not from 1 to 32: " + fen);
+                }
+                int bit = 1 << (number - 1);
+                if(((red | white) & bit) != 0){
+                    throw new IllegalArgumentException("Two pieces on square " + number + ": " + fen);
+                }
+                if(isWhite){
+                    white |= bit;
+                }
+                else{
+                    red |= bit;
+                }
+                if(isKing){
+                    kings |= bit;
+                }
+            }
+        }
+        if(((red & ~kings & TOP_ROW) | (white & ~kings & BOTTOM_ROW)) != 0){
+            throw new IllegalArgumentException("A man on its crowning row must be a king: " + fen);
+        }
+        return new Position(red, white, kings, turn, -1);
+    }
+    /**
+    * Writes this position as a FEN style string that fromFen() can read.
+    *
+    * @return String the position.
+    */
+    public String toFen(){
+        StringBuilder fen = new StringBuilder(currentTurn == PieceColor.WHITE ? "W" : "R");
+        fen.append(":W").append(squareList(white)).append(":R").append(squareList(red));
+        return fen.toString();
+    }
+    /**
+    * Writes the squares of a mask as a comma separated list, kings are marked with a K.
+    */
+    private String squareList(int mask){
+        StringBuilder list = new StringBuilder();
+        while(mask != 0){
+            int sq = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            if(list.length() > 0){
+                list.append(',');
+            }
+            if((kings & (1 << sq)) != 0){
+                list.append('K');
+            }
+            list.append(sq + 1);
+        }
+        return list.toString();
+    }
+    /**
+    * Converts board co-ordinates to a square number.
+    *
+    * @return int square 0-31, or -1 if x,y is a light tile.
+    */
+    public static int square(int x, int y){
+        if((x + y) % 2 == 0){
+            return -1;
+        }
+        return y * 4 + x / 2;
+    }
+    /**
+    * Get method for the board x co-ord of a square.
+    *
+    * @return int x co-ord.
+    */
+    public static int squareX(int square){
+        int y = square / 4;
+        return (square % 4) * 2 + (y % 2 == 0 ? 1 : 0);
+    }
+    /**
+    * Get method for the board y co-ord of a square.
+    *
+    * @return int y co-ord.
+    */
+    public static int squareY(int square){
+        return square / 4;
+    }
+    /**
+    * Moves every bit in the mask one step diagonally in the given direction, bits that would leave the board are dropped.
+    *
+    * @param bits mask of squares to shift.
+    * @param direction one of UP_LEFT, UP_RIGHT, DOWN_LEFT or DOWN_RIGHT.
+    * @return int the shifted mask.
+    */
+    static int shift(int bits, int direction){
+        switch(direction){
+            case UP_LEFT:
+                return ((bits & EVEN_ROWS) >>> 4) | ((bits & ODD_ROWS & ~LEFT_EDGE) >>> 5);
+            case UP_RIGHT:
+                return ((bits & EVEN_ROWS & ~RIGHT_EDGE) >>> 3) | ((bits & ODD_ROWS) >>> 4);
+            case DOWN_LEFT:
+                return ((bits & EVEN_ROWS) << 4) | ((bits & ODD_ROWS & ~LEFT_EDGE) << 3);
+            default:
+                return ((bits & EVEN_ROWS & ~RIGHT_EDGE) << 5) | ((bits & ODD_ROWS) << 4);
+        }
+    }
+    /**
+    * Packs a move into a long.
+    *
+    * @param from square the piece moves from.
+    * @param to square the piece moves to.
+    * @param captured mask of squares captured by the move.
+    * @param promotion true if the piece is crowned by the move.
+    * @return long the packed move.
+    */
+    static long encode(int from, int to, int captured, boolean promotion){
+        return (captured & 0xFFFFFFFFL) | ((long)from << 32) | ((long)to << 37) | (promotion ? PROMOTION : 0);
+    }
+    /**
+    * Get method for the from square of a packed move.
+    *
+    * @return int square.
+    */
+    public static int from(long move){
+        return (int)(move >>> 32) & 31;
+    }
+    /**
+    * Get method for the to square of a packed move.
+    *
+    * @return int square.
+    */
+    public static int to(long move){
+        return (int)(move >>> 37) & 31;
+    }
+    /**
+    * Get method for the mask of squares captured by a packed move.
+    *
+    * @return int mask, 0 if the move is not a kill move.
+    */
+    public static int captured(long move){
+        return (int)move;
+    }
+    /**
+    * Checks if a packed move is a kill move.
+    *
+    * @return boolean true if the move captures.
+    */
+    public static boolean isCapture(long move){
+        return (int)move != 0;
+    }
+    /**
+    * Checks if a packed move crowns the moving piece.
+    *
+    * @return boolean true if the move promotes.
+    */
+    public static boolean isPromotion(long move){
+        return (move & PROMOTION) != 0;
+    }
+    /**
+    * Writes a packed move in the usual notation, the squares numbered 1-32 as in a FEN joined by x for a kill move and - for a normal move.
+    *
+    * @return String the move, or "none" for 0.
+    */
+    public static String moveToString(long move){
+        if(move == 0){
+            return "none";
+        }
+        return (from(move) + 1) + (isCapture(move) ? "x" : "-") + (to(move) + 1);
+    }
+
+    /**
+    * Reads a move written as by moveToString(), a multi kill move can also list every square it lands on (for example 22x15x6).
+    *
+    * @param text the move.
+    * @return long the matching legal move of this position, or 0 if there is none or the squares it lands on are not those of any legal move.
+    */
+    public long parseMove(String text){
+        String[] fields = text.trim().split("[-x]");
+        int[] squares = new int[fields.length];
+        try{
+            for(int i = 0; i < fields.length; i++){
+                squares[i] = Integer.parseInt(fields[i]) - 1;
+            }
+        }catch(NumberFormatException e){
+            return 0;
+        }
+        if(squares.length < 2){
+            return 0;
+        }
+        for(long m: getAllMoves()){
+            if(from(m) != squares[0] || to(m) != squares[squares.length - 1]){
+                continue;
+            }
+            if(squares.length == 2){
+                return m;
+            }
+            //two kill moves can share their from and to squares, the squares between tell them apart.
+            long[] hops = getHops(m);
+            boolean path = hops.length == squares.length - 1;
+            for(int i = 0; path && i < hops.length; i++){
+                path = to(hops[i]) == squares[i + 1];
+            }
+            if(path){
+                return m;
+            }
+        }
+        return 0;
+    }
+
+    /**
+    * Get method returning the current players turn.
+    *
+    * @return PieceColor turn.
+    */
+    public PieceColor getTurn(){
+        return currentTurn;
+    }
+    /**
+    * Get method for the red pieces mask.
+    *
+    * @return int mask.
+    */
+    public int getRed(){
+        return red;
+    }
+    /**
+    * Get method for the white pieces mask.
+    *
+    * @return int mask.
+    */
+    public int getWhite(){
+        return white;
+    }
+    /**
+    * Get method for the kings mask.
+    *
+    * @return int mask.
+    */
+    public int getKings(){
+        return kings;
+    }
+    /**
+    * Get method for the square of the piece midway through a multi kill move.
+    *
+    * @return int square or -1.
+    */
+    public int getKillerSquare(){
+        return killerSquare;
+    }
+
+    /**
+    * Get method for the Zobrist hash of the position, kept up to date by movePiece() and undoMove().
+    *
+    * @return long hash.
+    */
+    public long getHash(){
+        return hash;
+    }
+    /**
+    * Calculates the Zobrist hash from scratch, used when a position is created and to check the incremental hash.
+    *
+    * @return long hash.
+    */
+    public long computeHash(){
+        long h = stateKey(currentTurn, killerSquare);
+        int all = red | white;
+        while(all != 0){
+            int sq = Integer.numberOfTrailingZeros(all);
+            all &= all - 1;
+            h ^= pieceKey(sq, (white & (1 << sq)) != 0, (kings & (1 << sq)) != 0);
+        }
+        return h;
+    }
+    /**
+    * Returns the Zobrist key of a piece on a square.
+    */
+    private static long pieceKey(int square, boolean isWhite, boolean isKing){
+        return PIECE_KEYS[(isWhite ? 1 : 0) + (isKing ? 2 : 0)][square];
+    }
+    /**
+    * Returns the Zobrist key for the turn and the multi kill piece.
+    */
+    private static long stateKey(PieceColor turn, int killerSquare){
+        return (turn == PieceColor.WHITE ? WHITE_KEY : 0) ^ (killerSquare >= 0 ? KILLER_KEYS[killerSquare] : 0);
+    }
+    /**
+    * Updates the hash for every captured piece, kingMask gives which of them are kings.
+    */
+    private void hashCaptured(int captured, boolean isWhite, int kingMask){
+        while(captured != 0){
+            int sq = Integer.numberOfTrailingZeros(captured);
+            captured &= captured - 1;
+            hash ^= pieceKey(sq, isWhite, (kingMask & (1 << sq)) != 0);
+        }
+    }
+
+    /**
+    * Sets the value of each piece on each square that the heuristic is the sum of, and recounts the heuristic.
+    *
+    * @param values value of red men, white men, red kings and white kings on each square, see Evaluator.getPieceSquareTables().
+    */
+    public void setPieceValues(int[][] values){
+        if(values != pieceValues){
+            pieceValues = values;
+            heuristic = computeHeuristic();
+        }
+    }
+    /**
+    * Returns the value of a piece on a square.
+    */
+    private int pieceValue(int square, boolean isWhite, boolean isKing){
+        return pieceValues[(isWhite ? 1 : 0) + (isKing ? 2 : 0)][square];
+    }
+    /**
+    * Returns the total value of the captured pieces, kingMask gives which of them are kings.
+    */
+    private int capturedValue(int captured, boolean isWhite, int kingMask){
+        int value = 0;
+        while(captured != 0){
+            int sq = Integer.numberOfTrailingZeros(captured);
+            captured &= captured - 1;
+            value += pieceValue(sq, isWhite, (kingMask & (1 << sq)) != 0);
+        }
+        return value;
+    }
+    /**
+    * Calculates the heuristic from scratch, used when a position is created and to check the running total.
+    *
+    * @return int heuristic.
+    */
+    public int computeHeuristic(){
+        return capturedValue(white, true, kings) + capturedValue(red, false, kings);
+    }
+
+    /**
+    * Returns all legal moves for the current player. Only kill moves if any are available otherwise all normal moves, following the rules of
+    * Board.getAllMoves(). Every kill move goes on killing with the same piece until it cannot, so each move is a whole turn. If the game is mid
+    * multi kill move then only the rest of the kill moves of that piece are returned.
+    *
+    * @return long[] packed moves.
+    */
+    public long[] getAllMoves(){
+        long[] moves = new long[MAX_MOVES];
+        int count = generateMoves(moves);
+        long[] result = new long[count];
+        System.arraycopy(moves, 0, result, 0, count);
+        return result;
+    }
+    /**
+    * Writes all legal moves for the current player into an array, the same moves as getAllMoves(). Nothing is created on the heap so the agent
+    * can call it at every node with an array kept for each ply.
+    *
+    * @param moves array of at least MAX_MOVES to write the packed moves into.
+    * @return int number of moves written.
+    */
+    public int generateMoves(long[] moves){
+        int count = generateCaptures(moves);
+        if(count == 0 && killerSquare < 0){
+            count = generateNormalMoves(moves);
+        }
+        return count;
+    }
+    /**
+    * Checks if the current player has a kill move, using masks for every piece at once.
+    *
+    * @return boolean true if a kill move exists.
+    */
+    public boolean hasCapture(){
+        int own = (currentTurn == PieceColor.WHITE ? white : red);
+        if(killerSquare >= 0){
+            own = 1 << killerSquare;
+        }
+        int opp = (currentTurn == PieceColor.WHITE ? red : white);
+        int empty = ~(red | white);
+        for(int d = 0; d < 4; d++){
+            if((shift(shift(movers(own, d), d) & opp, d) & empty) != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+    * Returns the pieces out of own that are allowed to move in a direction, men can only move forward and kings can move both ways.
+    */
+    private int movers(int own, int direction){
+        boolean down = direction == DOWN_LEFT || direction == DOWN_RIGHT;
+        if(down == (currentTurn == PieceColor.WHITE)){
+            return own;
+        }
+        return own & kings;
+    }
+    /**
+    * Writes all whole kill moves for the current player into moves.
+    *
+    * @return int number of moves written.
+    */
+    private int generateCaptures(long[] moves){
+        if(hopBuffer == null){
+            hopBuffer = new long[48 + 4 * 13];//the first kills of every piece, then the next kills of one piece for each kill in the sequence.
+        }
+        int hopCount = generateHops(hopBuffer, 0);
+        int count = 0;
+        for(int i = 0; i < hopCount; i++){
+            count = extend(hopBuffer[i], hopBuffer[i], moves, count, hopCount);
+        }
+        return count;
+    }
+    /**
+    * Performs a single kill then follows every kill the same piece can make after it, writing each finished sequence as one move. Two sequences
+    * taking the same pieces between the same squares leave the same position so only one is kept.
+    *
+    * @param sequence the kills so far as one packed move, ending with hop.
+    * @param hop the single kill to perform.
+    * @param hops where the kills after hop are written in hopBuffer.
+    * @return int number of moves written so far.
+    */
+    private int extend(long sequence, long hop, long[] moves, int count, int hops){
+        long undo = movePiece(hop);
+        if(killerSquare < 0){
+            boolean found = false;
+            for(int i = 0; i < count && !found; i++){
+                found = moves[i] == sequence;
+            }
+            if(!found){
+                moves[count++] = sequence;
+            }
+        }
+        else{
+            int hopCount = generateHops(hopBuffer, hops);//one piece kills in at most four directions.
+            for(int i = hops; i < hops + hopCount; i++){
+                long next = encode(from(sequence), to(hopBuffer[i]), captured(sequence) | captured(hopBuffer[i]),
+                    isPromotion(sequence) || isPromotion(hopBuffer[i]));
+                count = extend(next, hopBuffer[i], moves, count, hops + 4);
+            }
+        }
+        undoMove(hop, undo);
+        return count;
+    }
+    /**
+    * Splits a move into the single kills it is made of, in the order they are played. Board plays a multi kill move one kill at a time.
+    *
+    * @param move a packed move returned by getAllMoves().
+    * @return long[] the single kills, or the move itself if it is not a multi kill move.
+    */
+    public long[] getHops(long move){
+        long[] path = new long[32];
+        int length = findHops(move, captured(move), path, 0);
+        if(length <= 0){
+            return new long[]{move};
+        }
+        long[] result = new long[length];
+        System.arraycopy(path, 0, result, 0, length);
+        return result;
+    }
+    /**
+    * Searches for the single kills that take the remaining pieces of a move and end on its to square.
+    *
+    * @return int number of kills in the path, or -1 if there is none.
+    */
+    private int findHops(long move, int remaining, long[] path, int depth){
+        long[] hops = new long[48];
+        int hopCount = generateHops(hops, 0);
+        for(int i = 0; i < hopCount; i++){
+            long hop = hops[i];
+            if((depth == 0 && from(hop) != from(move)) || (captured(hop) & ~remaining) != 0){
+                continue;
+            }
+            long undo = movePiece(hop);
+            path[depth] = hop;
+            int length = -1;
+            if(remaining == captured(hop)){
+                length = (to(hop) == to(move) && killerSquare < 0 ? depth + 1 : -1);
+            }
+            else if(killerSquare >= 0){
+                length = findHops(move, remaining & ~captured(hop), path, depth + 1);
+            }
+            undoMove(hop, undo);
+            if(length > 0){
+                return length;
+            }
+        }
+        return -1;
+    }
+    /**
+    * Writes all single kills for the current player into moves, for a multi kill move in progress only those of the killing piece.
+    *
+    * @param offset index of moves to start writing at.
+    * @return int number of moves written.
+    */
+    private int generateHops(long[] moves, int offset){
+        int own = (currentTurn == PieceColor.WHITE ? white : red);
+        if(killerSquare >= 0){
+            own = 1 << killerSquare;
+        }
+        int opp = (currentTurn == PieceColor.WHITE ? red : white);
+        int empty = ~(red | white);
+        int count = 0;
+        for(int d = 0; d < 4; d++){
+            int from = movers(own, d);
+            int killed = shift(from, d) & opp;
+            int landing = shift(killed, d) & empty;
+            //walks back from each landing square to find the kill and the piece that made it.
+            while(landing != 0){
+                int to = Integer.numberOfTrailingZeros(landing);
+                landing &= landing - 1;
+                int kill = shift(1 << to, 3 - d);
+                int fromSquare = Integer.numberOfTrailingZeros(shift(kill, 3 - d));
+                moves[offset + count++] = encode(fromSquare, to, kill, crowns(fromSquare, to, kill));
+            }
+        }
+        return count;
+    }
+    /**
+    * Writes all normal moves for the current player into moves.
+    *
+    * @return int number of moves written.
+    */
+    private int generateNormalMoves(long[] moves){
+        int own = (currentTurn == PieceColor.WHITE ? white : red);
+        int empty = ~(red | white);
+        int count = 0;
+        for(int d = 0; d < 4; d++){
+            int to = shift(movers(own, d), d) & empty;
+            while(to != 0){
+                int toSquare = Integer.numberOfTrailingZeros(to);
+                to &= to - 1;
+                int fromSquare = Integer.numberOfTrailingZeros(shift(1 << toSquare, 3 - d));
+                moves[count++] = encode(fromSquare, toSquare, 0, crowns(fromSquare, toSquare, 0));
+            }
+        }
+        return count;
+    }
+    /**
+    * Checks if a piece becomes a king, either by reaching the end of the board or by killing a king.
+    */
+    private boolean crowns(int from, int to, int captured){
+        if((kings & (1 << from)) != 0){
+            return false;
+        }
+        return ((1 << to) & (TOP_ROW | BOTTOM_ROW)) != 0 || (captured & kings) != 0;
+    }
+
+    /**
+    * Performs a packed move on this position. Game logic matches Board.movePiece(), after a kill move the turn only changes if the same piece
+    * cannot kill again, so after a whole move from getAllMoves() it always changes. Returns an undo record so the agent can take the move back with undoMove() instead of copying the position for every node.
+    *
+    * The undo record is packed into a long so no object is created: the low 32 bits hold the kings that were captured, followed by the previous
+    * killer square plus one and a bit set if it was whites turn.
+    *
+    * @param move the packed move to perform.
+    * @return long undo record to be passed to undoMove().
+    */
+    public long movePiece(long move){
+        int from = 1 << from(move);
+        int to = 1 << to(move);
+        int captured = captured(move);
+        boolean king = (kings & from) != 0 || isPromotion(move);
+        long undo = ((captured & kings) & 0xFFFFFFFFL) | ((long)(killerSquare + 1) << 32) | (currentTurn == PieceColor.WHITE ? 1L << 38 : 0);
+        boolean isWhite = currentTurn == PieceColor.WHITE;
+        hash ^= pieceKey(from(move), isWhite, (kings & from) != 0) ^ pieceKey(to(move), isWhite, king);
+        hashCaptured(captured, !isWhite, kings);
+        heuristic += pieceValue(to(move), isWhite, king) - pieceValue(from(move), isWhite, (kings & from) != 0);
+        heuristic -= capturedValue(captured, !isWhite, kings);
+        hash ^= stateKey(currentTurn, killerSquare);
+
+        if(currentTurn == PieceColor.WHITE){
+            white = (white & ~from) | to;
+            red &= ~captured;
+        }
+        else{
+            red = (red & ~from) | to;
+            white &= ~captured;
+        }
+        kings &= ~(from | captured);
+        if(king){
+            kings |= to;
+        }
+
+        if(captured != 0){
+            killerSquare = to(move);//ensures that double kill possibility is checked.
+            if(!hasCapture()){
+                currentTurn = (currentTurn == PieceColor.WHITE ? PieceColor.RED : PieceColor.WHITE);//changes turn only if another kill is not possible.
+                killerSquare = -1;
+            }
+        }
+        else{
+            currentTurn = (currentTurn == PieceColor.WHITE ? PieceColor.RED : PieceColor.WHITE);
+            killerSquare = -1;
+        }
+        hash ^= stateKey(currentTurn, killerSquare);
+        return undo;
+    }
+    /**
+    * Takes back a move performed by movePiece(), restoring captured pieces, the moving pieces type, the turn and the killer square.
+    *
+    * @param move the packed move that was performed.
+    * @param undo the undo record returned when the move was performed.
+    */
+    public void undoMove(long move, long undo){
+        int from = 1 << from(move);
+        int to = 1 << to(move);
+        int captured = captured(move);
+        boolean wasKing = (kings & to) != 0 && !isPromotion(move);
+
+        hash ^= stateKey(currentTurn, killerSquare);
+        currentTurn = ((undo & (1L << 38)) != 0 ? PieceColor.WHITE : PieceColor.RED);
+        killerSquare = (int)((undo >>> 32) & 63) - 1;
+        boolean isWhite = currentTurn == PieceColor.WHITE;
+        hash ^= stateKey(currentTurn, killerSquare);
+        hash ^= pieceKey(from(move), isWhite, wasKing) ^ pieceKey(to(move), isWhite, (kings & to) != 0);
+        hashCaptured(captured, !isWhite, (int)undo);
+        heuristic += pieceValue(from(move), isWhite, wasKing) - pieceValue(to(move), isWhite, (kings & to) != 0);
+        heuristic += capturedValue(captured, !isWhite, (int)undo);
+        if(currentTurn == PieceColor.WHITE){
+            white = (white & ~to) | from;
+            red |= captured;
+        }
+        else{
+            red = (red & ~to) | from;
+            white |= captured;
+        }
+        kings &= ~to;
+        kings |= (int)undo;//captured kings.
+        if(wasKing){
+            kings |= from;
+        }
+    }
+    /**
+    * Creates a copy of this position then performs the move on the copy.
+    *
+    * @param move the packed move to perform.
+    * @return Position the resulting position.
+    */
+    public Position getMoveResults(long move){
+        Position newPosition = new Position(this);
+        newPosition.movePiece(move);
+        return newPosition;
+    }
+    /**
+    * Returns the sum of the values of every piece on its square, with the default values this is the same as Board.getHeuristic(). It is kept up
+    * to date by movePiece() and undoMove() so no pieces are counted here.
+    *
+    * @return int value that is higher if white is performing well otherwise lower.
+    */
+    public int getHeuristic(){
+        if(DEBUG_EVAL && heuristic != computeHeuristic()){
+            throw new IllegalStateException("Running heuristic " + heuristic + " does not match recount " + computeHeuristic() + " in " + toFen());
+        }
+        return heuristic;
+    }
+    /**
+    * Checks if a player has no pieces left.
+    *
+    * @return boolean true if a player has won otherwise false.
+    */
+    public boolean winCheck(){
+        return red == 0 || white == 0;
+    }
+}
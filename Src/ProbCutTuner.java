@@ -0,0 +1,83 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * ProbCutTuner fits the line ProbCut uses to guess the score of a deep search from the score of a shallow one. Quiet positions are taken evenly
+ * from a file, each is searched to the deep depth and to the deep depth less Searcher.PROBCUT_REDUCTION, and a straight line
+ * deep = slope * shallow + offset is fitted by least squares. Sigma is the standard deviation of the deep scores around the line. Positions won
+ * by either player are left out, their scores are not evaluations. The printed values are handed to Agent.setProbCutModel().
+ *
+ * The input has one FEN per line, anything after a tab is ignored, so the positions written by Tournament -positions can be used.
+ *
+ * Usage: java ProbCutTuner positions [samples] [deep depth]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class ProbCutTuner
+{
+    /**
+    * Fits the line and prints it.
+    *
+    * @param args positions file, optional number of positions to search (default 2000) and deep depth (default Searcher.PROBCUT_DEPTH + 2).
+    */
+    public static void main(String[] args) throws IOException{
+        if(args.length < 1){
+            System.out.println("Usage: java ProbCutTuner positions [samples] [deep depth]");
+            return;
+        }
+        List<String> lines = Files.readAllLines(Paths.get(args[0]));
+        int samples = (args.length > 1 ? Integer.parseInt(args[1]) : 2000);
+        int deep = (args.length > 2 ? Integer.parseInt(args[2]) : Searcher.PROBCUT_DEPTH + 2);
+        int shallow = deep - Searcher.PROBCUT_REDUCTION;
+
+        Agent agent = new Agent();
+        agent.setTimeLimit(Long.MAX_VALUE / 2);//only the depth limits the search.
+        double n = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        double sumYY = 0;
+        int step = Math.max(1, lines.size() / samples);
+        for(int i = 0; i < lines.size() && n < samples; i += step){
+            String line = lines.get(i);
+            int tab = line.indexOf('\t');
+            Position position = Position.fromFen(tab < 0 ? line : line.substring(0, tab));
+            if(position.hasCapture()){
+                continue;//ProbCut is only tried in quiet positions.
+            }
+            int[] scores = new int[2];
+            int[] depths = {shallow, deep};
+            for(int d = 0; d < 2; d++){
+                agent.setDepth(depths[d]);
+                agent.getTranspositionTable().clear();//the deep search must not see the shallow results.
+                agent.search(new Position(position));
+                scores[d] = agent.getScore();
+            }
+            if(Math.abs(scores[0]) >= Searcher.WIN_BOUND || Math.abs(scores[1]) >= Searcher.WIN_BOUND){
+                continue;
+            }
+            n++;
+            sumX += scores[0];
+            sumY += scores[1];
+            sumXX += (double)scores[0] * scores[0];
+            sumXY += (double)scores[0] * scores[1];
+            sumYY += (double)scores[1] * scores[1];
+        }
+        if(n < 2){
+            System.out.println("Not enough quiet positions");
+            return;
+        }
+        double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+        double offset = (sumY - slope * sumX) / n;
+        //sum of the squared errors around the line, expanded so the scores do not have to be kept.
+        double error = sumYY - 2 * slope * sumXY - 2 * offset * sumY + slope * slope * sumXX + 2 * slope * offset * sumX + n * offset * offset;
+        double sigma = Math.sqrt(Math.max(0, error) / (n - 2));
+        double correlation = (n * sumXY - sumX * sumY) / Math.sqrt((n * sumXX - sumX * sumX) * (n * sumYY - sumY * sumY));
+        System.out.printf("%d positions  depth %d from depth %d  correlation %.3f%n", (int)n, deep, shallow, correlation);
+        System.out.printf("slope %.3f  offset %.1f  sigma %.1f%n", slope, offset, sigma);
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Used to report the progress of a search, the agent calls it after every completed iteration and once the search is over.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public interface SearchListener
+{
+    /**
+    * Called when an iteration of the search completes.
+    *
+    * @param depth depth of the completed iteration.
+    * @param score score of the best move, higher if white is performing well.
+    * @param bestMove packed best move of the iteration.
+    * @param nodes nodes searched so far for this move.
+    */
+    void iterationComplete(int depth, int score, long bestMove, long nodes);
+    /**
+    * Called when a search is over, with what the search did. Does nothing unless overridden.
+    *
+    * @param stats stats of the search.
+    */
+    default void searchComplete(SearchStats stats){
+    }
+}
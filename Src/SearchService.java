@@ -0,0 +1,144 @@
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SearchService runs the agents search on its own thread so the javafx application thread never waits for it. A search returns a
+ * CompletableFuture that completes with the chosen move, can be cancelled, and reports its progress through a SearchListener.
+ *
+ * While the opponent is thinking the service can ponder: it searches the position after the reply the agent expects, filling the shared
+ * transposition table. If the opponent plays that reply the ponder search carries on as the real search and usually answers at once, otherwise it
+ * is cancelled and a new search starts with the warm table.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class SearchService
+{
+    private Agent agent;//the agent that searches.
+    private ExecutorService executor;//single thread that runs the searches one at a time.
+    private CompletableFuture<Long> current;//the last search started.
+    private boolean currentIsPonder;//true if the last search started is a ponder search.
+    private long ponderHash;//hash of the position being pondered.
+
+    /**
+    * Constructor used for creating a service for an agent.
+    *
+    * @param  agent the agent whose search is run.
+    */
+    public SearchService(Agent agent){
+        this.agent = agent;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "agent-search");
+            t.setDaemon(true);//a running search never keeps the application open.
+            return t;
+        });
+    }
+
+    /**
+    * Starts a search of a position, any search still running is cancelled first.
+    *
+    * @param position the position to search, it is not changed.
+    * @return CompletableFuture completing with the packed best move, or 0 if the position has no moves.
+    */
+    public synchronized CompletableFuture<Long> search(Position position){
+        //the position being pondered was reached, the ponder search becomes the real one.
+        if(currentIsPonder && !current.isCancelled() && ponderHash == position.getHash()){
+            currentIsPonder = false;
+            if(!current.isDone()){
+                agent.ponderHit();
+            }
+            return current;
+        }
+        return start(position, false);
+    }
+    /**
+    * Starts pondering on the opponents time. If the agents last search expected a reply that is legal in the position, the position after that
+    * reply is searched, otherwise the position itself is searched so the table holds results for all replies.
+    *
+    * @param position the position with the opponent to move, it is not changed.
+    */
+    public synchronized void ponder(Position position){
+        Position target = new Position(position);
+        long predicted = agent.getPonderMove();
+        for(long m: position.getAllMoves()){
+            if(m == predicted){
+                target.movePiece(m);
+                break;
+            }
+        }
+        if(target.getTurn() == position.getTurn()){
+            target = new Position(position);//no full reply was predicted, ponder all of them.
+        }
+        start(target, true);
+        ponderHash = target.getHash();
+    }
+    /**
+    * Cancels the last search and starts a new one on the search thread.
+    */
+    private CompletableFuture<Long> start(Position position, boolean ponder){
+        cancel();
+        Position copy = new Position(position);
+        CompletableFuture<Long> future = new CompletableFuture<Long>();
+        current = future;
+        currentIsPonder = ponder;
+        agent.queueSearch(ponder);//cancel() before the search thread starts it still stops it.
+        executor.execute(() -> {
+            if(future.isDone()){
+                return;//cancelled before it started.
+            }
+            try{
+                future.complete(ponder ? agent.ponder(copy) : agent.search(copy));
+            }catch(Exception e){
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+    /**
+    * Starts a search for the move to play on a Board. The move is converted to the Pieces and Tiles of the board on the javafx application
+    * thread, so anything chained onto the future can change the board.
+    *
+    * @param board the board to find a move for.
+    * @return CompletableFuture completing on the javafx application thread with the move, or null if there is no move.
+    */
+    public CompletableFuture<Move> successor(Board board){
+        return search(board.getPosition()).thenApplyAsync(board::getMove, Platform::runLater);
+    }
+    /**
+    * Cancels the running search, its future is cancelled and the agent is told to stop.
+    */
+    public synchronized void cancel(){
+        if(current != null && !current.isDone()){
+            current.cancel(false);
+            agent.stop();
+        }
+        currentIsPonder = false;
+    }
+    /**
+    * Checks if the service is pondering.
+    *
+    * @return boolean true if the last search started is a ponder search that has not been cancelled.
+    */
+    public synchronized boolean isPondering(){
+        return currentIsPonder;
+    }
+    /**
+    * Checks if a search is running or waiting to run.
+    *
+    * @return boolean true if a search has not finished.
+    */
+    public synchronized boolean isSearching(){
+        return current != null && !current.isDone();
+    }
+    /**
+    * Sets the listener told about every completed iteration. It is called on the search thread so user interfaces need Platform.runLater.
+    *
+    * @param listener the listener, or null for none.
+    */
+    public void setListener(SearchListener listener){
+        agent.setListener(listener);
+    }
+}
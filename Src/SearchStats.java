@@ -0,0 +1,309 @@
+import java.util.Arrays;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SearchStats holds what one search of the agent did: nodes and speed, depth reached, transposition table use, which moves caused the cutoffs,
+ * the re-searches of the selective search and the nodes and time of every iteration. The agent makes one after every move it chooses, read it with
+ * Agent.getSearchStats() or SearchListener.searchComplete(). The counters behind it are plain fields added to as the search runs, so they are
+ * always on. Node counts are for all search threads, the other counts are for the main thread only.
+ *
+ * The agent also writes a JFR event for every search and every iteration, so a flight recording (java -XX:StartFlightRecording) shows how long
+ * the agent took next to the garbage collector and frame timing. The events cost nothing while no recording is running.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class SearchStats
+{
+    private long bestMove;//packed move chosen.
+    private int score;//score of the move, higher if white is performing well.
+    private boolean book;//true if the move came from the opening book and there was no search.
+    private long nodes;//nodes searched by all threads.
+    private long quiescenceNodes;//nodes searched by the main thread past the nominal depth.
+    private long time;//nanoseconds the search took.
+    private int depth;//depth of the last completed iteration.
+    private int selDepth;//deepest ply the main thread reached.
+    private long tableProbes;//transposition table probes by all threads.
+    private long tableHits;//probes that found their position.
+    private long[] cutoffsByIndex;//cutoffs of the main thread by position of the move in the sorted list.
+    private long pvsResearches;//re-searches of the main thread, see Searcher.
+    private long aspirationResearches;
+    private long lmrResearches;
+    private long probCuts;
+    private long researchTime;//nanoseconds the main thread spent in re-searches.
+    private long[] iterationNodes;//nodes the main thread searched in iterations 1 to depth.
+    private long[] iterationTimes;//nanoseconds the main thread took for iterations 1 to depth.
+
+    /**
+    * Constructor used for the stats of a move played from the opening book.
+    *
+    * @param  bestMove the book move.
+    */
+    SearchStats(long bestMove){
+        this.bestMove = bestMove;
+        this.book = true;
+        this.cutoffsByIndex = new long[MoveOrdering.CUTOFF_INDEXES];
+        this.iterationNodes = new long[0];
+        this.iterationTimes = new long[0];
+    }
+    /**
+    * Constructor used for the stats of a search that has just finished.
+    *
+    * @param  agent the agent that searched.
+    * @param  bestMove the move chosen.
+    * @param  time nanoseconds the search took.
+    * @param  tableProbes transposition table probes made during the search.
+    * @param  tableHits probes that found their position.
+    */
+    SearchStats(Agent agent, long bestMove, long time, long tableProbes, long tableHits){
+        Searcher main = agent.main;
+        this.bestMove = bestMove;
+        this.score = main.completedScore;
+        this.nodes = agent.getNodes();
+        this.quiescenceNodes = main.quiescenceNodes;
+        this.time = time;
+        this.depth = main.completedDepth;
+        this.selDepth = main.selDepth;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.cutoffsByIndex = main.ordering.getCutoffsByIndex();
+        this.pvsResearches = main.pvsResearches;
+        this.aspirationResearches = main.aspirationResearches;
+        this.lmrResearches = main.lmrResearches;
+        this.probCuts = main.probCuts;
+        this.researchTime = main.researchTime;
+        this.iterationNodes = Arrays.copyOfRange(main.iterationNodes, 1, depth + 1);
+        this.iterationTimes = Arrays.copyOfRange(main.iterationTimes, 1, depth + 1);
+    }
+
+    /**
+    * Get method for the move chosen.
+    *
+    * @return long packed move.
+    */
+    public long getBestMove(){
+        return bestMove;
+    }
+    /**
+    * Get method for the score of the move chosen.
+    *
+    * @return int score, higher if white is performing well.
+    */
+    public int getScore(){
+        return score;
+    }
+    /**
+    * Checks if the move came from the opening book, the other stats are then 0.
+    *
+    * @return boolean true for a book move.
+    */
+    public boolean isBookMove(){
+        return book;
+    }
+    /**
+    * Get method for the nodes searched by all threads.
+    *
+    * @return long nodes.
+    */
+    public long getNodes(){
+        return nodes;
+    }
+    /**
+    * Get method for the nodes the main thread searched past the nominal depth.
+    *
+    * @return long nodes.
+    */
+    public long getQuiescenceNodes(){
+        return quiescenceNodes;
+    }
+    /**
+    * Get method for the time the search took.
+    *
+    * @return long milliseconds.
+    */
+    public long getTime(){
+        return time / 1000000;
+    }
+    /**
+    * Get method for the nodes searched per second by all threads.
+    *
+    * @return long nodes per second.
+    */
+    public long getNodesPerSecond(){
+        return (time == 0 ? 0 : nodes * 1000000000L / time);
+    }
+    /**
+    * Get method for the depth of the last completed iteration.
+    *
+    * @return int depth.
+    */
+    public int getDepth(){
+        return depth;
+    }
+    /**
+    * Get method for the deepest ply the main thread reached, the kills searched past the nominal depth included.
+    *
+    * @return int ply.
+    */
+    public int getSelDepth(){
+        return selDepth;
+    }
+    /**
+    * Get method for the transposition table probes made during the search.
+    *
+    * @return long probes.
+    */
+    public long getTableProbes(){
+        return tableProbes;
+    }
+    /**
+    * Get method for the probes that found their position.
+    *
+    * @return long hits.
+    */
+    public long getTableHits(){
+        return tableHits;
+    }
+    /**
+    * Get method for the number of cutoffs caused by the move at each position in the sorted list.
+    *
+    * @return long[] cutoffs of the first, second ... move, the last count holds every move from MoveOrdering.CUTOFF_INDEXES - 1 on.
+    */
+    public long[] getCutoffsByIndex(){
+        return cutoffsByIndex.clone();
+    }
+    /**
+    * Get method for the effective branching factor, how many times more nodes the last iteration took than the one before.
+    *
+    * @return double branching factor, or 0 if fewer than two iterations completed.
+    */
+    public double getBranchingFactor(){
+        int n = iterationNodes.length;
+        return (n < 2 || iterationNodes[n - 2] == 0 ? 0 : (double)iterationNodes[n - 1] / iterationNodes[n - 2]);
+    }
+    /**
+    * Get method for the null window searches that failed high and were searched again.
+    *
+    * @return long re-searches.
+    */
+    public long getPvsResearches(){
+        return pvsResearches;
+    }
+    /**
+    * Get method for the root searches that fell outside the aspiration window and were searched again.
+    *
+    * @return long re-searches.
+    */
+    public long getAspirationResearches(){
+        return aspirationResearches;
+    }
+    /**
+    * Get method for the reduced searches that beat alpha and were searched again at full depth.
+    *
+    * @return long re-searches.
+    */
+    public long getLmrResearches(){
+        return lmrResearches;
+    }
+    /**
+    * Get method for the nodes cut by ProbCut.
+    *
+    * @return long cuts.
+    */
+    public long getProbCuts(){
+        return probCuts;
+    }
+    /**
+    * Get method for the time spent in re-searches.
+    *
+    * @return long milliseconds.
+    */
+    public long getResearchTime(){
+        return researchTime / 1000000;
+    }
+    /**
+    * Get method for the nodes of each completed iteration.
+    *
+    * @return long[] nodes of iterations 1 to getDepth().
+    */
+    public long[] getIterationNodes(){
+        return iterationNodes.clone();
+    }
+    /**
+    * Get method for the time of each completed iteration.
+    *
+    * @return double[] milliseconds of iterations 1 to getDepth().
+    */
+    public double[] getIterationTimes(){
+        double[] ms = new double[iterationTimes.length];
+        for(int i = 0; i < ms.length; i++){
+            ms[i] = iterationTimes[i] / 1e6;
+        }
+        return ms;
+    }
+
+    /**
+    * Writes the stats on one line.
+    *
+    * @return String the stats.
+    */
+    public String toString(){
+        if(book){
+            return "move " + Position.moveToString(bestMove) + " from book";
+        }
+        return String.format("move %s score %d depth %d/%d nodes %d nps %d time %d ms tt %d/%d ebf %.2f cutoffs %s re-searches pvs %d asp %d"
+        + " lmr %d (%d ms) probcuts %d", Position.moveToString(bestMove), score, depth, selDepth, nodes, getNodesPerSecond(), getTime(),
+        tableHits, tableProbes, getBranchingFactor(), Arrays.toString(cutoffsByIndex), pvsResearches, aspirationResearches, lmrResearches,
+        getResearchTime(), probCuts);
+    }
+
+    /**
+    * JFR event written for every search the agent runs, its duration is the time the agent took to choose its move.
+    */
+    @Name("checkers.Search")
+    @Label("Agent Search")
+    @Category({"Checkers", "Agent"})
+    @Description("One search of the agent for a move")
+    static class SearchEvent extends Event{
+        @Label("Best Move")
+        String bestMove;
+        @Label("Score")
+        int score;
+        @Label("Depth")
+        int depth;
+        @Label("Selective Depth")
+        int selDepth;
+        @Label("Nodes")
+        long nodes;
+        @Label("Nodes Per Second")
+        long nodesPerSecond;
+        @Label("Book Move")
+        boolean book;
+        @Label("Ponder")
+        boolean ponder;
+    }
+    /**
+    * JFR event written for every completed iteration of the main search thread.
+    */
+    @Name("checkers.Iteration")
+    @Label("Agent Iteration")
+    @Category({"Checkers", "Agent"})
+    @Description("One completed iteration of the agent's iterative deepening")
+    static class IterationEvent extends Event{
+        @Label("Depth")
+        int depth;
+        @Label("Selective Depth")
+        int selDepth;
+        @Label("Score")
+        int score;
+        @Label("Nodes")
+        long nodes;
+        @Label("Best Move")
+        String bestMove;
+    }
+}
@@ -0,0 +1,409 @@
+/**
+ * Searcher runs the agents minimax search with iterative deepening. Each search thread has its own Searcher holding its own position, principal
+ * variation and move ordering, only the transposition table and the stop flag of the Agent are shared between threads.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Searcher
+{
+    final static int WIN_SCORE = 9000;//score of a won position less the plies it takes to win, far above any evaluation.
+    final static int WIN_BOUND = WIN_SCORE - Agent.MAX_PLY;//scores past this are wins.
+    final static int ASPIRATION_WINDOW = 25;//half width of the first root window around the last score, a quarter of a man.
+    final static int LMR_MOVES = 3;//moves searched at full depth at each node before late quiet moves are reduced.
+    final static int LMR_DEPTH = 3;//shallowest depth that is reduced, shallower nodes are cheap anyway.
+    final static int LMR_LATE_MOVES = 8;//moves from here on are reduced by 2 plies at deep enough nodes.
+    final static int PROBCUT_DEPTH = 6;//shallowest depth ProbCut is tried at.
+    final static int PROBCUT_REDUCTION = 4;//plies less the shallow ProbCut search looks.
+
+    private Agent agent;//shared settings, table and stop flag.
+    private boolean isMain;//only the main searcher checks the budgets and its move is the one played.
+
+    long bestMove;//best root move of the current iteration.
+    long nodes;//nodes searched for the current move.
+    long quiescenceNodes;//nodes of those searched by quiesce(), the leaves at the nominal depth and the kills searched past it.
+    boolean stopped;//set when the search has to stop, the unfinished iteration is then thrown away.
+    int rootDepth;//depth of the current iteration.
+    int completedDepth;//depth of the last completed iteration.
+    int completedScore;//score of the last completed iteration, higher if white is performing well.
+    int ply;//distance from the root of the node being searched.
+    int selDepth;//deepest ply reached, quiescence included.
+    long[] iterationNodes = new long[Agent.MAX_PLY + 1];//nodes searched by each completed iteration.
+    long[] iterationTimes = new long[Agent.MAX_PLY + 1];//nanoseconds taken by each completed iteration.
+    long pvsResearches;//null window searches that failed high and were searched again with the full window.
+    long aspirationResearches;//root searches that fell outside the aspiration window and were searched again with a wider one.
+    long lmrResearches;//reduced searches of late moves that beat alpha and were searched again at full depth.
+    long probCuts;//nodes cut by ProbCut.
+    long researchTime;//nanoseconds spent in all kinds of re-search.
+    int researching;//re-searches running, only the outermost one is timed so nested ones are not counted twice.
+
+    long[][] pvTable = new long[Agent.MAX_PLY + 1][Agent.MAX_PLY + 1];//principal variation found below each ply.
+    int[] pvLength = new int[Agent.MAX_PLY + 1];
+    long[] lastPv = new long[Agent.MAX_PLY + 1];//principal variation of the last completed iteration, searched first in the next one.
+    int lastPvLength;
+    boolean followPv;//true while the search is still on the last principal variation.
+    MoveOrdering ordering = new MoveOrdering(Agent.MAX_PLY);//sorts moves before they are searched.
+    long[][] moveLists = new long[Agent.MAX_PLY + 1][Position.MAX_MOVES];//moves of each ply, kept so the search creates nothing on the heap.
+
+    /**
+    * Constructor used for creating a search worker for an agent.
+    *
+    * @param  agent the agent whose settings and table are used.
+    * @param  isMain true for the searcher whose result is played.
+    */
+    public Searcher(Agent agent, boolean isMain){
+        this.agent = agent;
+        this.isMain = isMain;
+    }
+
+    /**
+    * Searches with iterative deepening until the depth, time or node budget runs out, or until the agent is told to stop.
+    *
+    * @param position the position to search, it is changed during the search but restored at the end.
+    * @param startDepth depth of the first iteration, helper threads start deeper so they do not all search the same depths.
+    * @return long best move of the last completed iteration, or 0 if no iteration completed.
+    */
+    public long search(Position position, int startDepth){
+        nodes = 0;
+        quiescenceNodes = 0;
+        pvsResearches = 0;
+        aspirationResearches = 0;
+        lmrResearches = 0;
+        probCuts = 0;
+        researchTime = 0;
+        researching = 0;
+        selDepth = 0;
+        stopped = false;
+        completedDepth = 0;
+        lastPvLength = 0;
+        ply = 0;
+        ordering.newSearch();
+        long result = 0;
+        boolean isWhite = position.getTurn() == PieceColor.WHITE;
+        for(rootDepth = startDepth; rootDepth <= agent.agentDepth; rootDepth++){
+            long iterationStart = System.nanoTime();
+            long nodesBefore = nodes;
+            SearchStats.IterationEvent event = (isMain ? new SearchStats.IterationEvent() : null);
+            if(event != null){
+                event.begin();
+            }
+            //the root window starts narrow around the last score and is widened on the side the score fell out of until the score is inside.
+            int alpha = -10000;
+            int beta = 10000;
+            int delta = ASPIRATION_WINDOW;
+            if(agent.aspiration && completedDepth > 0 && Math.abs(completedScore) < WIN_BOUND){
+                alpha = completedScore - delta;
+                beta = completedScore + delta;
+            }
+            int bestScore;
+            long researchStart = 0;
+            while(true){
+                bestMove = 0;
+                followPv = true;
+                bestScore = minimax(position, rootDepth, alpha, beta, isWhite);
+                if(stopped){
+                    break;
+                }
+                if(bestScore <= alpha && alpha > -10000){
+                    alpha = Math.max(-10000, alpha - delta);
+                }
+                else if(bestScore >= beta && beta < 10000){
+                    beta = Math.min(10000, beta + delta);
+                }
+                else{
+                    break;
+                }
+                delta *= 2;
+                aspirationResearches++;
+                if(researchStart == 0){
+                    researching++;//counted once however many times the window fails, matching the one decrement below.
+                    researchStart = System.nanoTime();
+                }
+            }
+            if(researchStart != 0 && --researching == 0){
+                researchTime += System.nanoTime() - researchStart;
+            }
+            if(stopped){
+                break;//the unfinished iteration is not trusted.
+            }
+            result = bestMove;
+            completedDepth = rootDepth;
+            completedScore = bestScore;
+            lastPvLength = pvLength[0];
+            System.arraycopy(pvTable[0], 0, lastPv, 0, lastPvLength);
+            iterationNodes[rootDepth] = nodes - nodesBefore;
+            iterationTimes[rootDepth] = System.nanoTime() - iterationStart;
+            if(event != null && event.shouldCommit()){
+                event.depth = rootDepth;
+                event.selDepth = selDepth;
+                event.score = bestScore;
+                event.nodes = iterationNodes[rootDepth];
+                event.bestMove = Position.moveToString(result);
+                event.commit();
+            }
+            if(isMain && agent.listener != null){
+                agent.listener.iterationComplete(completedDepth, bestScore, result, agent.getNodes());
+            }
+        }
+        return result;
+    }
+    /**
+    * Checks if the search has to stop, either because the agent was stopped or because the budget ran out. The main searcher checks the time and
+    * node budgets and tells the helpers to stop, the first iteration of the main searcher is never stopped so there is a move to play.
+    */
+    private boolean outOfBudget(){
+        if(!isMain){
+            return agent.stopSearch;
+        }
+        if(rootDepth <= 1){
+            return false;
+        }
+        if(agent.stopSearch){
+            return true;
+        }
+        if((agent.nodeLimit > 0 && nodes >= agent.nodeLimit && !agent.pondering)
+        || ((nodes & 1023) == 0 && System.currentTimeMillis() >= agent.deadline)){
+            agent.stopSearch = true;
+            return true;
+        }
+        return false;
+    }
+    /**
+    * Converts a win score to be stored in the table: scores are stored as plies to win from the position itself, not from the root, so they stay
+    * right when the position is reached at another ply.
+    */
+    private int toTable(int score){
+        return (score > WIN_BOUND ? score + ply : (score < -WIN_BOUND ? score - ply : score));
+    }
+    /**
+    * Converts a win score read from the table back to plies from the root.
+    */
+    private int fromTable(int score){
+        return (score > WIN_BOUND ? score - ply : (score < -WIN_BOUND ? score + ply : score));
+    }
+    /**
+    * Searches past the nominal depth while the player to move has to kill, so the search never stops halfway through an exchange and misjudges
+    * it (the horizon effect). When no kill is pending the evaluation is returned (stand pat). When a kill is pending the rules force it, so there
+    * is no stand pat and every kill is searched. Only kill moves are searched so the extension stays narrow.
+    *
+    * @return int score of the position, higher if white is performing well.
+    */
+    private int quiesce(Position position, int alpha, int beta, boolean isWhite){
+        nodes++;
+        quiescenceNodes++;
+        pvLength[ply] = ply;
+        if(ply > selDepth){
+            selDepth = ply;
+        }
+        if(stopped || outOfBudget()){
+            stopped = true;
+            return 0;
+        }
+        if(agent.endgame != null && ply > 0){
+            int score = agent.endgame.probe(position);
+            if(score != EndgameDatabase.UNKNOWN){
+                return score;
+            }
+        }
+        long[] moves = moveLists[ply];
+        int moveCount = position.generateMoves(moves);
+        if(moveCount < 1){
+            return (isWhite ? ply - WIN_SCORE : WIN_SCORE - ply);
+        }
+        if(!Position.isCapture(moves[0]) || !agent.quiescence || ply >= Agent.MAX_PLY){
+            return agent.evaluator.evaluate(position);//no kill pending, the position is quiet.
+        }
+        ordering.sort(moves, moveCount, ply, position, 0, 0);
+        int v = (isWhite ? -10000 : 10000);
+        for(int i = 0; i < moveCount; i++){
+            long m = moves[i];
+            long undo = position.movePiece(m);
+            ply++;
+            int score = quiesce(position, alpha, beta, !isWhite);
+            ply--;
+            position.undoMove(m, undo);
+            if(stopped){
+                return 0;
+            }
+            if(isWhite ? score > v : score < v){
+                v = score;
+            }
+            if(isWhite){
+                alpha = Math.max(alpha, v);
+            }
+            else{
+                beta = Math.min(beta, v);
+            }
+            if(alpha >= beta){
+                break;
+            }
+        }
+        return v;
+    }
+    /**
+    * Searches a child of the node with a null window on the bound of the player to move, so the result only tells if the child is better than the
+    * best move so far.
+    */
+    private int nullWindow(Position position, int depth, int alpha, int beta, boolean isWhite){
+        return (isWhite ? minimax(position,depth,alpha,alpha+1,false) : minimax(position,depth,beta-1,beta,true));
+    }
+    /**
+    * ProbCut: the score of a deep search is close to a straight line of the score of a shallow one, deep = slope * shallow + offset with an error
+    * of sigma (see ProbCutTuner). A shallow null window search is run on the bound the shallow score would need for the deep score to pass the
+    * window by probCutMargin sigmas, if it gets there the node is cut without the deep search. The moves of the ply are overwritten by the
+    * shallow search so they are generated again.
+    *
+    * @return boolean true if the node can be cut.
+    */
+    private boolean probCut(Position position, int depth, int alpha, int beta, boolean isWhite){
+        if(Math.abs(alpha) >= WIN_BOUND || Math.abs(beta) >= WIN_BOUND){
+            return false;
+        }
+        double margin = agent.probCutMargin * agent.probCutSigma;
+        boolean cut;
+        if(isWhite){
+            int bound = (int)Math.ceil((beta + margin - agent.probCutOffset) / agent.probCutSlope);
+            cut = minimax(position, depth - PROBCUT_REDUCTION, bound - 1, bound, true) >= bound;
+        }
+        else{
+            int bound = (int)Math.floor((alpha - margin - agent.probCutOffset) / agent.probCutSlope);
+            cut = minimax(position, depth - PROBCUT_REDUCTION, bound, bound + 1, false) <= bound;
+        }
+        position.generateMoves(moveLists[ply]);
+        return cut && !stopped;
+    }
+    /**
+    * Minimax search with alpha beta pruning. White is the maximising player. Every move is a whole turn so the player to move changes at every
+    * ply, and a player with no moves has lost.
+    *
+    * @return int score of the position, higher if white is performing well.
+    */
+    public int minimax(Position position, int depth, int alpha, int beta, Boolean isWhite){
+        if(depth <= 0){
+            return quiesce(position, alpha, beta, isWhite);
+        }
+        nodes++;
+        pvLength[ply] = ply;
+        if(ply > selDepth){
+            selDepth = ply;
+        }
+        if(stopped || outOfBudget()){
+            stopped = true;
+            return 0;
+        }
+        //a position in the endgame database has an exact result, so the search ends here. Not used at the root where bestMove is needed.
+        if(agent.endgame != null && ply > 0){
+            int score = agent.endgame.probe(position);
+            if(score != EndgameDatabase.UNKNOWN){
+                return score;
+            }
+        }
+        long[] legalMoves = moveLists[ply];
+        int moveCount = position.generateMoves(legalMoves);
+
+        if(moveCount < 1){
+            return (isWhite ? ply - WIN_SCORE : WIN_SCORE - ply);//the player to move has lost, the sooner the better for the winner.
+        }
+        if(ply >= Agent.MAX_PLY){
+            return agent.evaluator.evaluate(position);
+        }
+
+        //probes the table, a stored result from a deep enough search can end the search here. Never used at the root where bestMove is needed.
+        TranspositionTable table = agent.table;
+        long key = position.getHash();
+        long entry = table.probe(key);
+        if(entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth){
+            int score = fromTable(TranspositionTable.score(entry));
+            int bound = TranspositionTable.bound(entry);
+            if(bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER && score >= beta)
+            || (bound == TranspositionTable.UPPER && score <= alpha)){
+                return score;
+            }
+        }
+        if(agent.probCut && depth >= PROBCUT_DEPTH && ply > 0 && beta - alpha == 1 && !followPv && !Position.isCapture(legalMoves[0])
+        && probCut(position, depth, alpha, beta, isWhite)){
+            probCuts++;
+            return (isWhite ? beta : alpha);
+        }
+        if(stopped){
+            return 0;
+        }
+        //moves on the last principal variation are searched first, then the stored best move, see MoveOrdering.
+        long pvMove = (followPv && ply < lastPvLength ? lastPv[ply] : 0);
+        ordering.sort(legalMoves, moveCount, ply, position, entry, pvMove);
+        followPv = pvMove != 0 && legalMoves[0] == pvMove;
+
+        int alphaStart = alpha;
+        int betaStart = beta;
+        long best = 0;
+        int v = (isWhite ? -10000 : 10000);
+        for(int i = 0; i < moveCount; i++){
+            long m = legalMoves[i];
+            if(i > 0){
+                followPv = false;
+            }
+            long undo = position.movePiece(m);
+            ply++;
+            //late move reductions: late quiet moves are rarely best once the moves are sorted, so they are first searched less deep.
+            int reduction = 0;
+            if(agent.lmr && i >= LMR_MOVES && depth >= LMR_DEPTH && !Position.isCapture(m) && !Position.isPromotion(m)){
+                reduction = (i >= LMR_LATE_MOVES && depth >= LMR_DEPTH + 2 ? 2 : 1);
+            }
+            int score;
+            if(i == 0 || (!agent.pvs && reduction == 0)){
+                score = minimax(position,depth-1,alpha,beta,!isWhite);
+            }
+            else{
+                //principal variation search: the first move is expected to be best, so the others only have to be shown to be no better with a
+                //null window, which cuts more. A move that turns out better is searched again at full depth and then with the full window.
+                score = nullWindow(position, depth - 1 - reduction, alpha, beta, isWhite);
+                if(reduction > 0 && !stopped && (isWhite ? score > alpha : score < beta)){
+                    lmrResearches++;
+                    long start = (researching++ == 0 ? System.nanoTime() : 0);
+                    score = (agent.pvs ? nullWindow(position, depth - 1, alpha, beta, isWhite) : minimax(position,depth-1,alpha,beta,!isWhite));
+                    if(--researching == 0){
+                        researchTime += System.nanoTime() - start;
+                    }
+                }
+                if(agent.pvs && !stopped && score > alpha && score < beta){
+                    pvsResearches++;
+                    long start = (researching++ == 0 ? System.nanoTime() : 0);
+                    score = minimax(position,depth-1,alpha,beta,!isWhite);
+                    if(--researching == 0){
+                        researchTime += System.nanoTime() - start;
+                    }
+                }
+            }
+            ply--;
+            position.undoMove(m, undo);
+            if(stopped){
+                return 0;
+            }
+            if(isWhite ? score > v : score < v){
+                v = score;
+                best = m;
+                if(ply == 0){
+                    bestMove = m;
+                }
+                //copies the childs principal variation behind this move.
+                pvTable[ply][ply] = m;
+                System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+                pvLength[ply] = pvLength[ply + 1];
+            }
+            if(isWhite){
+                alpha = Math.max(alpha, v);
+            }
+            else{
+                beta = Math.min(beta, v);
+            }
+            if(alpha >= beta){
+                ordering.cutoff(m, i, ply, depth);
+                break;
+            }
+        }
+        int bound = (v <= alphaStart ? TranspositionTable.UPPER : (v >= betaStart ? TranspositionTable.LOWER : TranspositionTable.EXACT));
+        table.store(key, toTable(v), depth, bound, best);
+        return v;
+    }
+}
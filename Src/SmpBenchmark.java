@@ -0,0 +1,54 @@
+/**
+ * SmpBenchmark measures how much faster the agent reaches a fixed depth with more search threads. Every position in a fixed set is searched to
+ * the same depth with 1, 2, 4 ... threads up to the number asked for, and the total time and speedup over 1 thread is printed.
+ *
+ * Usage: java SmpBenchmark [maxThreads] [depth]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class SmpBenchmark
+{
+    //positions searched by the benchmark: opening, early middlegame, middlegame, king middlegame and king endgame.
+    final static String[] POSITIONS = {
+        "R:W1,2,3,4,5,6,7,8,9,10,11,12:R21,22,23,24,25,26,27,28,29,30,31,32",
+        "R:W1,2,3,4,6,7,8,11,16:R15,18,21,27,28,29,30,31,32",
+        "W:W1,4,10,11,12,15:R5,18,21,22,26,29",
+        "R:W4,5,6,9,16:RK17,18,22,23,28,29,30,31,32",
+        "R:W5,K27:RK4,K11,28,29"
+    };
+
+    /**
+    * Runs the benchmark.
+    *
+    * @param args optional maximum thread count and search depth.
+    */
+    public static void main(String[] args){
+        int maxThreads = (args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors());
+        int depth = (args.length > 1 ? Integer.parseInt(args[1]) : 12);
+
+        long baseTime = 0;
+        for(int threads = 1; threads <= maxThreads; threads *= 2){
+            Agent agent = new Agent();
+            agent.setThreads(threads);
+            agent.setDepth(depth);
+            agent.setTimeLimit(Long.MAX_VALUE / 2);//only the depth limits the search.
+            agent.setHashSize(64);
+
+            long nodes = 0;
+            long start = System.nanoTime();
+            for(String fen: POSITIONS){
+                agent.getTranspositionTable().clear();
+                agent.search(Position.fromFen(fen));
+                nodes += agent.getNodes();
+            }
+            long time = System.nanoTime() - start;
+            if(threads == 1){
+                baseTime = time;
+            }
+            agent.close();
+            System.out.printf("threads %2d  time %8.1f ms  nodes %10d  nps %10.0f  speedup %.2f%n", threads, time / 1e6, nodes,
+                nodes / (time / 1e9), (double)baseTime / time);
+        }
+    }
+}
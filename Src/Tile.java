@@ -1,51 +1,39 @@
-import javafx.scene.shape.Rectangle;
-import javafx.scene.paint.Color;
-    
 /**
-* Used to represent a tile on the board, extends rectangle to create a grid system.
-* 
+* Used to represent a tile on the board, the tiles make up the grid system of the board. A tile only holds game state, BoardView draws it.
+*
 * @author      Slade Brooks
 * @version     1
 */
-public class Tile extends Rectangle
+public class Tile
 {
     private Piece piece;//Piece stored in tile
-    public Color c;//Colour of tile
-    final int TILE_SIZE = Board.TILE_SIZE;
-        
+    private int x, y;//co-ords of the tile on the board.
+    private boolean highlighted;//true while the tile is shown as a destination of the selected piece.
+
     /**
     * Constructor used when creating a deep copy.
     *
     * @param  tile the tile param provided is deep copied to create this tile.
     */
     public Tile(Tile tile){
-        this(tile.getXInt(),tile.getYInt(),tile.getColor());
+        this(tile.getXInt(),tile.getYInt());
     }
     /**
     * Constructor used for creating a tile.
     *
-    * @param  x used to set the x value of the rectangle and the xInt value of the Tile.
-    * @param  y used to set the y value of the rectangle and the yInt value of the Tile.
-    * @param  c of type Color, used to fill the rectangles colour.
+    * @param  x used to set the x value of the Tile.
+    * @param  y used to set the y value of the Tile.
     */
-    public Tile(int x, int y,Color c)
-    {   
+    public Tile(int x, int y)
+    {
         piece = null;//tiles are created with no pieces.
-        this.setX(x);//sets x co ordinate of tile on board.
-        this.setY(y);//sets y co ordinate of tile on board.
-        this.c = c;
-        
-        setWidth(TILE_SIZE);//sets width of tile to 100.
-        setHeight(TILE_SIZE);//sets height of tile to 100.
-        
-        //tile is set to the position of its x and y multiplied by tile size.
-        relocate(this.getX() * TILE_SIZE, this.getY() * TILE_SIZE);
-        setFill(c);//fills the colour of the tile on board.
+        this.x = x;//sets x co ordinate of tile on board.
+        this.y = y;//sets y co ordinate of tile on board.
     }
-    
+
     /**
     * Method is used to determine if the tiles contains a piece or if its Piece field is set to null.
-    * 
+    *
     * @return True if Tile contains piece, otherwise false.
     */
     public boolean hasPiece()
@@ -54,7 +42,7 @@ public class Tile extends Rectangle
     }
     /**
     * Get method for the tiles stored Piece.
-    * 
+    *
     * @return Piece returns the Tiles associated piece field.
     */
     public Piece getPiece(){
@@ -62,7 +50,7 @@ public class Tile extends Rectangle
     }
     /**
     * A set method for the tiles Piece field.
-    * 
+    *
     * @param p sets the Piece field of tile to equal p.
     */
     public void addPiece(Piece p){
@@ -75,39 +63,43 @@ public class Tile extends Rectangle
         piece = null;
     }
     /**
-    * Method is used to highlight the tile as green in the GUI.
+    * Set method for the highlight of the tile, Board calls this and tells its listeners.
+    *
+    * @param highlighted true to highlight the tile.
     */
-    public void highlight(){
-        setFill(Color.GREEN);
+    void setHighlighted(boolean highlighted){
+        this.highlighted = highlighted;
     }
     /**
-    * Method is used to remove GUI highlight and set tile back to origional colour.
+    * Checks if the tile is highlighted.
+    *
+    * @return boolean true if the tile is highlighted.
     */
-    public void unHighlight(){
-        setFill(this.c);
+    public boolean isHighlighted(){
+        return highlighted;
     }
     /**
-    * The getX() method for rectangle is final and cannot be overwritten, this is used as an alternative that returns an int, used instead of casting.
-    * 
+    * Checks if the tile is a dark tile, only dark tiles are played on.
+    *
+    * @return boolean true for a dark tile.
+    */
+    public boolean isDark(){
+        return (x + y) % 2 == 1;
+    }
+    /**
+    * Get method for the x co-ord of the tile.
+    *
     * return x int representation of the tiles x position.
     */
     public int getXInt(){
-        return (int)this.getX();
+        return x;
     }
     /**
-    * The getY() method for rectangle is final and cannot be overwritten, this is used as an alternative that returns an int, used instead of casting.
-    * 
+    * Get method for the y co-ord of the tile.
+    *
     * return y int representation of the tiles y position.
     */
     public int getYInt(){
-        return (int)this.getY();
-    }
-    /**
-    * Get method for the colour of the tile.
-    * 
-    * return c returns the default colour of the tile in type Color.
-    */
-    public Color getColor(){
-        return this.c;
+        return y;
     }
 }
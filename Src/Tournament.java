@@ -0,0 +1,354 @@
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tournament plays games between two agents without the javafx user interface, so a change to the agent can be tested by many games instead of
+ * by hand. Games are played in parallel, one per core. Every opening is played twice with the colours swapped so neither agent gains from a good
+ * opening. Openings are random moves from the start or random lines from an opening book.
+ *
+ * A game ends when the player to move has no moves, when it gets too long (a draw), when both agents agree for several moves that one side is
+ * winning, or when the position is in the endgame database. Each result is written to a file as soon as the game ends, a game that throws is
+ * written as an error and left out of the results. At the end, and after every game, the Elo difference of agent A over agent B is worked out
+ * with a 95% error bar. With -sprt the tournament stops as soon as the sequential probability ratio test decides between the two Elo
+ * hypotheses. With -positions every position an agent searched is written with the result of its game, for the Tuner.
+ *
+ * Agents are set up with comma separated key=value options: depth, time (milliseconds per move), nodes, hash (megabytes), threads, weights (a
+ * WeightedEvaluator weights file), eval (material to count pieces only), quiescence, pvs, aspiration, lmr and probcut (true or false) and
+ * probcutMargin (sigmas).
+ *
+ * Usage: java Tournament [-games n] [-concurrency n] [-a options] [-b options] [-openingPlies n] [-book file] [-maxPlies n]
+ *        [-adjudicate score,moves] [-endgame file] [-sprt elo0,elo1] [-seed n] [-out file]
+ *        [-positions file]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Tournament
+{
+    final static double ALPHA = 0.05;//chance the sprt accepts elo1 when elo0 is true.
+    final static double BETA = 0.05;//chance the sprt accepts elo0 when elo1 is true.
+
+    int games = 100;
+    int concurrency = Runtime.getRuntime().availableProcessors();
+    String optionsA = "depth=64,time=100";
+    String optionsB = "depth=64,time=100";
+    int openingPlies = 4;//random moves played from the start before the agents take over.
+    String bookFile;//opening lines are taken from this book instead of random moves, may be null.
+    int maxPlies = 300;//a game this long is a draw.
+    int adjudicateScore = 0;//a score both agents see past for adjudicateMoves moves ends the game, 0 for never.
+    int adjudicateMoves = 4;
+    String endgameFile;//positions in this database end the game with their result, may be null.
+    boolean sprt = false;
+    double elo0 = 0;//the sprt tests elo0 against elo1.
+    double elo1 = 5;
+    long seed = 1;
+    String out = "tournament.txt";
+    String positionsFile;//searched positions are written here with their game result, may be null.
+
+    private EndgameDatabase endgame;
+    private PrintWriter results;
+    private PrintWriter positions;
+    private int wins;//games won by agent A.
+    private int draws;
+    private int losses;
+    private int played;//games finished.
+    private int errors;//games that threw instead of finishing, left out of the results.
+    private double sum;//sum of the scores of A, and of their squares for the error bar.
+    private double sumSquares;
+    private volatile boolean finished;//set when the sprt has decided, the games not started yet are skipped.
+    private String decision = "sprt: no decision";
+
+    /**
+    * Sets up an agent from comma separated key=value options, see Agent.setOption().
+    *
+    * @param agent the agent to set up.
+    * @param options the options, for example "depth=10,time=200,hash=32".
+    */
+    static void configure(Agent agent, String options){
+        agent.setThreads(1);
+        for(String option: options.split(",")){
+            if(option.isEmpty()){
+                continue;
+            }
+            String[] kv = option.split("=", 2);
+            String value = (kv.length > 1 ? kv[1] : "");
+            agent.setOption(kv[0], value);
+        }
+    }
+    /**
+    * Creates the opening played by a pair of games.
+    */
+    private Position opening(int pair, OpeningBook book){
+        Random random = new Random(seed * 1000003L + pair);
+        for(int attempt = 0; ; attempt++){
+            Position position = new Position();
+            for(int ply = 0; ply < openingPlies; ply++){
+                long move = 0;
+                if(book != null){
+                    move = book.probe(position);
+                }
+                else{
+                    long[] moves = position.getAllMoves();
+                    if(moves.length > 0){
+                        move = moves[random.nextInt(moves.length)];
+                    }
+                }
+                if(move == 0){
+                    break;//out of book.
+                }
+                position.movePiece(move);
+            }
+            //an opening that is already lost is no use, another is tried.
+            if(position.getAllMoves().length > 0 || attempt > 100){
+                return position;
+            }
+        }
+    }
+    /**
+    * Plays one game.
+    *
+    * @return String the result line: game number, opening, colour of agent A, result for A (1, 0.5 or 0), plies and how the game ended.
+    */
+    private String play(int game, Position opening){
+        boolean aIsRed = game % 2 == 0;//the two games of a pair swap colours.
+        try(Agent a = new Agent(); Agent b = new Agent()){//closed at the end of the game so their helper threads do not pile up.
+            configure(a, optionsA);
+            configure(b, optionsB);
+            Agent red = (aIsRed ? a : b);
+            Agent white = (aIsRed ? b : a);
+            Position position = new Position(opening);
+            StringBuilder searched = new StringBuilder();//positions searched, one FEN per line.
+
+            int whiteResult = -2;//1 if white won, -1 if red won, 0 for a draw.
+            String reason = "max plies";
+            int agree = 0;
+            int ply = 0;
+            for(; ply < maxPlies && whiteResult == -2; ply++){
+                if(position.getAllMoves().length == 0){
+                    whiteResult = (position.getTurn() == PieceColor.WHITE ? -1 : 1);
+                    reason = "no moves";
+                    break;
+                }
+                if(endgame != null){
+                    int score = endgame.probe(position);
+                    if(score != EndgameDatabase.UNKNOWN){
+                        whiteResult = Integer.signum(score);
+                        reason = "endgame database";
+                        break;
+                    }
+                }
+                Agent agent = (position.getTurn() == PieceColor.RED ? red : white);
+                long move = agent.search(position);
+                searched.append(position.toFen()).append('\n');
+                //a score past the limit counts only if the agent searched (not a book move) and agrees in sign with the last ones.
+                int score = agent.getScore();
+                if(adjudicateScore > 0 && agent.getCompletedDepth() > 0 && Math.abs(score) >= adjudicateScore
+                && (agree == 0 || Integer.signum(score) == Integer.signum(agree))){
+                    agree += Integer.signum(score);
+                    if(Math.abs(agree) >= adjudicateMoves){
+                        whiteResult = Integer.signum(score);
+                        reason = "adjudicated";
+                    }
+                }
+                else{
+                    agree = 0;
+                }
+                position.movePiece(move);
+            }
+            if(whiteResult == -2){
+                whiteResult = 0;
+            }
+            double scoreA = (whiteResult == 0 ? 0.5 : ((whiteResult > 0) != aIsRed ? 1 : 0));
+            if(positionsFile != null){
+                recordPositions(searched.toString(), (whiteResult + 1) / 2.0);
+            }
+            return game + "\t" + opening.toFen() + "\t" + (aIsRed ? "R" : "W") + "\t" + scoreA + "\t" + ply + "\t" + reason;
+        }
+    }
+    /**
+    * Writes the positions of a game, each followed by a tab and the result for white (1, 0.5 or 0).
+    */
+    private synchronized void recordPositions(String fens, double whiteScore){
+        for(String fen: fens.split("\n")){
+            if(!fen.isEmpty()){
+                positions.println(fen + "\t" + whiteScore);
+            }
+        }
+        positions.flush();
+    }
+    /**
+    * Records the result of a game, writes it to the results file and runs the sprt.
+    */
+    private synchronized void record(String line){
+        double score = Double.parseDouble(line.split("\t")[3]);
+        if(score == 1){
+            wins++;
+        }
+        else if(score == 0){
+            losses++;
+        }
+        else{
+            draws++;
+        }
+        played++;
+        sum += score;
+        sumSquares += score * score;
+        results.println(line);
+        results.flush();
+        System.out.println(summary());
+        if(sprt && !finished){
+            double llr = llr();
+            if(llr >= Math.log((1 - BETA) / ALPHA)){
+                decision = "sprt: H1 accepted (elo >= " + elo1 + ") after " + played + " games";
+                finished = true;
+            }
+            else if(llr <= Math.log(BETA / (1 - ALPHA))){
+                decision = "sprt: H0 accepted (elo <= " + elo0 + ") after " + played + " games";
+                finished = true;
+            }
+        }
+    }
+    /**
+    * Records a game that threw, it is written to the results file as an error and its stack trace printed, but it does not count towards the
+    * Elo or the sprt.
+    */
+    private synchronized void recordError(int game, RuntimeException e){
+        errors++;
+        results.println(game + "\terror\t" + e);
+        results.flush();
+        System.out.println("game " + game + " failed: " + e);
+        e.printStackTrace(System.out);
+    }
+    /**
+    * Returns the expected score of a player the given Elo above their opponent.
+    */
+    static double expectedScore(double elo){
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+    /**
+    * Returns the Elo difference that gives the expected score.
+    */
+    static double elo(double score){
+        score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / score - 1);
+    }
+    /**
+    * Returns the mean score of A and its variance over the finished games.
+    */
+    private double[] meanVariance(){
+        double mean = sum / played;
+        return new double[]{mean, Math.max(0, sumSquares / played - mean * mean)};
+    }
+    /**
+    * Returns the log likelihood ratio of elo1 over elo0, using the normal approximation of the score of a game.
+    */
+    private double llr(){
+        double[] mv = meanVariance();
+        if(mv[1] == 0){
+            return 0;
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return played * (s1 - s0) * (2 * mv[0] - s0 - s1) / (2 * mv[1]);
+    }
+    /**
+    * Returns a line with the games so far, the Elo difference of A with its 95% error bar and the sprt state.
+    */
+    private String summary(){
+        double[] mv = meanVariance();
+        double margin = 1.96 * Math.sqrt(mv[1] / played);
+        double elo = elo(mv[0]);
+        double error = (elo(mv[0] + margin) - elo(mv[0] - margin)) / 2;
+        String line = String.format("games %d  +%d =%d -%d  score %.3f  elo %+.1f +/- %.1f", played, wins, draws, losses, mv[0], elo, error);
+        if(errors > 0){
+            line += "  errors " + errors;
+        }
+        if(sprt){
+            line += String.format("  llr %.2f (%.2f, %.2f)", llr(), Math.log(BETA / (1 - ALPHA)), Math.log((1 - BETA) / ALPHA));
+        }
+        return line;
+    }
+    /**
+    * Plays all the games.
+    */
+    public void run() throws Exception{
+        endgame = (endgameFile == null ? null : new EndgameDatabase(Paths.get(endgameFile)));
+        OpeningBook book = (bookFile == null ? null : new OpeningBook(Paths.get(bookFile), new Random(seed)));
+        Position[] openings = new Position[(games + 1) / 2];
+        for(int pair = 0; pair < openings.length; pair++){
+            openings[pair] = opening(pair, book);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        try(PrintWriter writer = new PrintWriter(new FileWriter(out));
+            PrintWriter positionsWriter = (positionsFile == null ? null : new PrintWriter(new FileWriter(positionsFile)))){
+            results = writer;
+            positions = positionsWriter;
+            for(int game = 0; game < games; game++){
+                int g = game;
+                pool.execute(() -> {
+                    if(!finished){
+                        String line;
+                        try{
+                            line = play(g, openings[g / 2]);
+                        }catch(RuntimeException e){
+                            recordError(g, e);
+                            return;
+                        }
+                        record(line);
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        if(errors > 0){
+            System.out.println(errors + " games failed and are not counted, see " + out);
+        }
+        if(sprt){
+            System.out.println(decision);
+        }
+    }
+
+    /**
+    * Runs a tournament.
+    *
+    * @param args the options listed in the class description.
+    */
+    public static void main(String[] args) throws Exception{
+        Tournament t = new Tournament();
+        for(int i = 0; i + 1 < args.length; i += 2){
+            String value = args[i + 1];
+            switch(args[i]){
+                case "-games": t.games = Integer.parseInt(value); break;
+                case "-concurrency": t.concurrency = Integer.parseInt(value); break;
+                case "-a": t.optionsA = value; break;
+                case "-b": t.optionsB = value; break;
+                case "-openingPlies": t.openingPlies = Integer.parseInt(value); break;
+                case "-book": t.bookFile = value; break;
+                case "-maxPlies": t.maxPlies = Integer.parseInt(value); break;
+                case "-adjudicate":
+                    String[] adjudicate = value.split(",");
+                    t.adjudicateScore = Integer.parseInt(adjudicate[0]);
+                    t.adjudicateMoves = Integer.parseInt(adjudicate[1]);
+                    break;
+                case "-endgame": t.endgameFile = value; break;
+                case "-sprt":
+                    String[] elos = value.split(",");
+                    t.sprt = true;
+                    t.elo0 = Double.parseDouble(elos[0]);
+                    t.elo1 = Double.parseDouble(elos[1]);
+                    break;
+                case "-seed": t.seed = Long.parseLong(value); break;
+                case "-out": t.out = value; break;
+                case "-positions": t.positionsFile = value; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        t.run();
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.Arrays;
+/**
+ * TranspositionTable stores search results by the Zobrist hash of a Position so that the agent does not search the same position twice when it
+ * is reached through different move orders. The table has a fixed size set in MB and is split into buckets of two entries, the first entry is
+ * only replaced by results from an equal or deeper search and the second is always replaced.
+ *
+ * Each entry is two longs, a packed data word holding the score, depth, bound type and the from/to squares of the best move, and the full hash
+ * XORed with that data word. The table is shared by all search threads without locks: an entry torn by two threads writing at once no longer
+ * XORs back to its hash, so it is treated as missing instead of returning a wrong result. The counters are not synchronised and are only
+ * approximate when more than one thread is searching.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class TranspositionTable
+{
+    final static int EXACT = 1;//score is the exact value of the position.
+    final static int LOWER = 2;//score is a lower bound, the search failed high.
+    final static int UPPER = 3;//score is an upper bound, the search failed low.
+
+    private long[] keys;//hash of the position stored in each entry XORed with its data word.
+    private long[] data;//packed score, depth, bound and move of each entry.
+    private int bucketMask;//number of buckets minus one, the number of buckets is a power of two.
+
+    private long probes;//number of times probe() was called.
+    private long hits;//number of probes that found their position.
+    private long stores;//number of times store() was called.
+    private long overwrites;//number of stores that replaced an entry for a different position.
+
+    /**
+    * Constructor used for creating a table using roughly the given amount of memory.
+    *
+    * @param  megabytes size of the table in MB, at least 1.
+    */
+    public TranspositionTable(int megabytes){
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / 32);//each bucket is two entries of two longs.
+        buckets = Math.min(buckets, 1L << 26);
+        keys = new long[(int)buckets * 2];
+        data = new long[(int)buckets * 2];
+        bucketMask = (int)buckets - 1;
+    }
+
+    /**
+    * Packs an entry into a data word.
+    */
+    private static long pack(int score, int depth, int bound, long move){
+        long moveKey = (move == 0 ? 0 : Position.from(move) | (Position.to(move) << 5) | (1 << 10));
+        return (score & 0xFFFFL) | ((long)(depth & 0xFF) << 16) | ((long)bound << 24) | (moveKey << 26);
+    }
+    /**
+    * Get method for the score of a data word returned by probe().
+    *
+    * @return int score.
+    */
+    public static int score(long entry){
+        return (short)entry;
+    }
+    /**
+    * Get method for the search depth of a data word returned by probe().
+    *
+    * @return int depth.
+    */
+    public static int depth(long entry){
+        return (int)(entry >>> 16) & 0xFF;
+    }
+    /**
+    * Get method for the bound type of a data word returned by probe(), EXACT, LOWER or UPPER.
+    *
+    * @return int bound.
+    */
+    public static int bound(long entry){
+        return (int)(entry >>> 24) & 3;
+    }
+    /**
+    * Checks if a data word holds a best move.
+    *
+    * @return boolean true if a best move was stored.
+    */
+    public static boolean hasMove(long entry){
+        return ((entry >>> 26) & (1 << 10)) != 0;
+    }
+    /**
+    * Checks if a packed move from Position is the best move stored in a data word. Only the from and to squares are stored so the first
+    * generated move matching them is used.
+    *
+    * @return boolean true if the move matches.
+    */
+    public static boolean isMove(long entry, long move){
+        return hasMove(entry) && ((entry >>> 26) & 1023) == (Position.from(move) | (Position.to(move) << 5));
+    }
+
+    /**
+    * Looks up a position in the table.
+    *
+    * @param hash Zobrist hash of the position.
+    * @return long the data word of the entry, or 0 if the position is not stored.
+    */
+    public long probe(long hash){
+        probes++;
+        int i = ((int)hash & bucketMask) * 2;
+        for(int slot = i; slot < i + 2; slot++){
+            long d = data[slot];
+            if(d != 0 && (keys[slot] ^ d) == hash){
+                hits++;
+                return d;
+            }
+        }
+        return 0;
+    }
+    /**
+    * Stores a search result. The depth preferred entry is used if the new result is from an equal or deeper search or is for the same position,
+    * otherwise the always replace entry is used.
+    *
+    * @param hash Zobrist hash of the position.
+    * @param score score found by the search.
+    * @param depth remaining depth of the search.
+    * @param bound EXACT, LOWER or UPPER.
+    * @param move best move found, or 0.
+    */
+    public void store(long hash, int score, int depth, int bound, long move){
+        stores++;
+        int i = ((int)hash & bucketMask) * 2;
+        int slot = i + 1;
+        long first = data[i];
+        if(first == 0 || (keys[i] ^ first) == hash || depth >= depth(first)){
+            slot = i;
+        }
+        long old = data[slot];
+        if(old != 0 && (keys[slot] ^ old) != hash){
+            overwrites++;
+        }
+        long d = pack(score, depth, bound, move);
+        keys[slot] = hash ^ d;
+        data[slot] = d;
+    }
+    /**
+    * Removes all entries and resets the counters.
+    */
+    public void clear(){
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        probes = 0;
+        hits = 0;
+        stores = 0;
+        overwrites = 0;
+    }
+    /**
+    * Get method for the number of probes.
+    *
+    * @return long probes.
+    */
+    public long getProbes(){
+        return probes;
+    }
+    /**
+    * Get method for the number of probes that found their position.
+    *
+    * @return long hits.
+    */
+    public long getHits(){
+        return hits;
+    }
+    /**
+    * Get method for the number of stores.
+    *
+    * @return long stores.
+    */
+    public long getStores(){
+        return stores;
+    }
+    /**
+    * Get method for the number of stores that replaced an entry for a different position.
+    *
+    * @return long overwrites.
+    */
+    public long getOverwrites(){
+        return overwrites;
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tuner fits the weights of WeightedEvaluator to the results of played games (Texel tuning). Every position is given the result of its game and
+ * the evaluation is turned into an expected result with a logistic curve, 1 / (1 + 10^(-k * score / 400)). The weights are moved to make the
+ * mean squared difference between the expected and the real results as small as possible. First k is fitted to the starting weights, then the
+ * weights are improved by gradient descent (Adam) with k fixed. The value of a man is kept at its starting value so the scale of the scores stays
+ * the same.
+ *
+ * The score is linear in the weights, so the gradient of each weight is worked out from the features of WeightedEvaluator. Each pass over the
+ * positions is split into chunks run in parallel with fork/join. Positions are stored packed, 13 bytes each: the white and red masks in a long,
+ * the kings mask in an int and the result in a byte, so tens of millions fit in memory. Positions where the player to move can kill are skipped
+ * because the evaluation of a position in the middle of an exchange says little about the result.
+ *
+ * The input has one position per line, a FEN then a tab then the result for white (1, 0.5 or 0), as written by Tournament -positions.
+ *
+ * Usage: java Tuner positions [epochs] [output] [starting weights]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Tuner
+{
+    final static int CHUNK = 16384;//positions per fork/join task.
+    final static double LEARNING_RATE = 1;//Adam step size, in evaluation points.
+    final static double BETA1 = 0.9;
+    final static double BETA2 = 0.999;
+
+    private long[] pieces = new long[1024];//white mask in the high 32 bits, red mask in the low 32 bits.
+    private int[] kings = new int[1024];
+    private byte[] results = new byte[1024];//result for white times 2: 0 red won, 1 draw, 2 white won.
+    private int count;
+    private double k = 1;//scale of the logistic curve.
+
+    /**
+    * Reads positions and their results.
+    *
+    * @param file the file to read.
+    */
+    public void load(Path file) throws IOException{
+        try(BufferedReader reader = Files.newBufferedReader(file)){
+            String line;
+            while((line = reader.readLine()) != null){
+                int tab = line.indexOf('\t');
+                if(tab < 0){
+                    continue;
+                }
+                Position position = Position.fromFen(line.substring(0, tab));
+                if(position.hasCapture()){
+                    continue;//not a quiet position.
+                }
+                if(count == pieces.length){
+                    pieces = Arrays.copyOf(pieces, count * 2);
+                    kings = Arrays.copyOf(kings, count * 2);
+                    results = Arrays.copyOf(results, count * 2);
+                }
+                pieces[count] = ((long)position.getWhite() << 32) | (position.getRed() & 0xFFFFFFFFL);
+                kings[count] = position.getKings();
+                results[count] = (byte)Math.round(2 * Double.parseDouble(line.substring(tab + 1).trim()));
+                count++;
+            }
+        }
+    }
+
+    /**
+    * One pass over a range of the positions, split in half until the range is small enough.
+    */
+    private static class Pass extends RecursiveTask<double[]>{
+        private static final long serialVersionUID = 1L;
+
+        private Tuner tuner;//holds the positions.
+        private int start;
+        private int end;
+        private double[] weights;
+        private boolean gradient;
+
+        Pass(Tuner tuner, int start, int end, double[] weights, boolean gradient){
+            this.tuner = tuner;
+            this.start = start;
+            this.end = end;
+            this.weights = weights;
+            this.gradient = gradient;
+        }
+        /**
+        * Returns the sum of the squared errors followed by the sum of the gradient of each weight if asked for.
+        */
+        protected double[] compute(){
+            if(end - start > CHUNK){
+                int mid = (start + end) >>> 1;
+                Pass left = new Pass(tuner, start, mid, weights, gradient);
+                left.fork();
+                double[] right = new Pass(tuner, mid, end, weights, gradient).compute();
+                double[] sum = left.join();
+                for(int i = 0; i < sum.length; i++){
+                    sum[i] += right[i];
+                }
+                return sum;
+            }
+            double[] sum = new double[gradient ? WeightedEvaluator.WEIGHTS + 1 : 1];
+            int[] features = new int[WeightedEvaluator.WEIGHTS];
+            for(int i = start; i < end; i++){
+                WeightedEvaluator.features((int)(tuner.pieces[i] >>> 32), (int)tuner.pieces[i], tuner.kings[i], features);
+                double score = 0;
+                for(int j = 0; j < features.length; j++){
+                    score += weights[j] * features[j];
+                }
+                double expected = tuner.sigmoid(score);
+                double error = tuner.results[i] / 2.0 - expected;
+                sum[0] += error * error;
+                if(gradient){
+                    //derivative of the squared error by the score, then by each weight through its feature.
+                    double d = -2 * error * expected * (1 - expected) * tuner.k * Math.log(10) / 400;
+                    for(int j = 0; j < features.length; j++){
+                        if(features[j] != 0){
+                            sum[j + 1] += d * features[j];
+                        }
+                    }
+                }
+            }
+            return sum;
+        }
+    }
+    private double sigmoid(double score){
+        return 1 / (1 + Math.pow(10, -k * score / 400));
+    }
+    /**
+    * Returns the mean squared error of the weights, and the mean gradient of each weight after it if asked for.
+    */
+    private double[] pass(double[] weights, boolean gradient){
+        double[] sum = ForkJoinPool.commonPool().invoke(new Pass(this, 0, count, weights, gradient));
+        for(int i = 0; i < sum.length; i++){
+            sum[i] /= count;
+        }
+        return sum;
+    }
+    /**
+    * Fits k to the weights by golden section search.
+    */
+    private void fitK(double[] weights){
+        double low = 0.05;
+        double high = 5;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        for(int i = 0; i < 40; i++){
+            double a = high - ratio * (high - low);
+            double b = low + ratio * (high - low);
+            k = a;
+            double errorA = pass(weights, false)[0];
+            k = b;
+            double errorB = pass(weights, false)[0];
+            if(errorA < errorB){
+                high = b;
+            }
+            else{
+                low = a;
+            }
+        }
+        k = (low + high) / 2;
+    }
+    /**
+    * Tunes the weights.
+    *
+    * @param start the weights to start from.
+    * @param epochs number of passes of gradient descent.
+    * @return int[] the tuned weights.
+    */
+    public int[] tune(int[] start, int epochs){
+        double[] weights = new double[start.length];
+        for(int i = 0; i < start.length; i++){
+            weights[i] = start[i];
+        }
+        fitK(weights);
+        System.out.printf("%d positions  k %.4f  error %.6f%n", count, k, pass(weights, false)[0]);
+        double[] m = new double[weights.length];
+        double[] v = new double[weights.length];
+        for(int epoch = 1; epoch <= epochs; epoch++){
+            double[] result = pass(weights, true);
+            for(int i = 0; i < weights.length; i++){
+                if(i == WeightedEvaluator.MAN){
+                    continue;//keeps the scale of the scores.
+                }
+                double g = result[i + 1];
+                m[i] = BETA1 * m[i] + (1 - BETA1) * g;
+                v[i] = BETA2 * v[i] + (1 - BETA2) * g * g;
+                double mHat = m[i] / (1 - Math.pow(BETA1, epoch));
+                double vHat = v[i] / (1 - Math.pow(BETA2, epoch));
+                weights[i] -= LEARNING_RATE * mHat / (Math.sqrt(vHat) + 1e-12);
+            }
+            if(epoch % 10 == 0 || epoch == epochs){
+                System.out.printf("epoch %d  error %.6f%n", epoch, result[0]);
+            }
+        }
+        int[] tuned = new int[weights.length];
+        for(int i = 0; i < weights.length; i++){
+            tuned[i] = (int)Math.round(weights[i]);
+        }
+        return tuned;
+    }
+
+    /**
+    * Tunes the weights and writes them to a file the agent can load.
+    *
+    * @param args positions file, optional epochs (default 200), output file (default weights.txt) and starting weights file (default the
+    * built in weights).
+    */
+    public static void main(String[] args) throws IOException{
+        if(args.length < 1){
+            System.out.println("Usage: java Tuner positions [epochs] [output] [starting weights]");
+            return;
+        }
+        int epochs = (args.length > 1 ? Integer.parseInt(args[1]) : 200);
+        Path out = Paths.get(args.length > 2 ? args[2] : "weights.txt");
+        WeightedEvaluator start = (args.length > 3 ? WeightedEvaluator.load(Paths.get(args[3])) : new WeightedEvaluator());
+
+        Tuner tuner = new Tuner();
+        long time = System.currentTimeMillis();
+        tuner.load(Paths.get(args[0]));
+        System.out.println("loaded in " + (System.currentTimeMillis() - time) + " ms");
+        time = System.currentTimeMillis();
+        int[] tuned = tuner.tune(start.getWeights(), epochs);
+        double[] rounded = new double[tuned.length];
+        for(int i = 0; i < tuned.length; i++){
+            rounded[i] = tuned[i];
+        }
+        System.out.printf("tuned in %d ms  error with rounded weights %.6f%n", System.currentTimeMillis() - time, tuner.pass(rounded, false)[0]);
+        new WeightedEvaluator(tuned).save(out);
+        System.out.println("wrote " + out);
+    }
+}
@@ -0,0 +1,298 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * WeightedEvaluator scores a position as a weighted sum of terms, so the agent sees basic ideas without having to search for them:
+ *
+ * man, king       value of each man and king, a man is worth 100.
+ * manTable        bonus of a man on each square.
+ * kingTable       bonus of a king on each square.
+ * tempo           bonus for each row a man has advanced.
+ * backRank        bonus for each man still guarding its own back row while the opponent has men that could be crowned there.
+ * mobility        bonus for each normal move a player has.
+ * runaway         bonus for each man in the opponents half that no opponent piece stands in front of, so it cannot be stopped from crowning.
+ * tradeDown       bonus for the player with more pieces for each piece that has left the board, so the player ahead trades.
+ *
+ * Tables are laid out for white, square 0-3 is its own back row. Red pieces use the square on the board turned round (31 - square). Every term
+ * counts for white and against red. The piece, table and tempo terms are handed to Position as piece square tables so they are kept up to date as
+ * pieces move, the other terms are worked out at every evaluation.
+ *
+ * The score is linear in the weights: evaluate() equals the sum of each weight times its feature from features(), so the weights can be tuned.
+ * Weights are read from and written to a properties file, tables are written as 32 numbers separated by spaces.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class WeightedEvaluator implements Evaluator
+{
+    final static int MAN = 0;//indexes of the weights.
+    final static int KING = 1;
+    final static int TEMPO = 2;
+    final static int BACK_RANK = 3;
+    final static int MOBILITY = 4;
+    final static int RUNAWAY = 5;
+    final static int TRADE_DOWN = 6;
+    final static int MAN_TABLE = 7;
+    final static int KING_TABLE = MAN_TABLE + 32;
+    final static int WEIGHTS = KING_TABLE + 32;//number of weights.
+    final static String[] NAMES = {"man", "king", "tempo", "backRank", "mobility", "runaway", "tradeDown"};//names of the single weights.
+
+    final static int OWN_BACK_ROW = 0x0000000F;//white's back row, red's is turned round onto it.
+    final static int OWN_HALF = 0x0000FFFF;//rows 0-3 seen from white.
+
+    private int[] weights;
+    private int[][] tables = new int[4][32];//piece square tables handed to Position.
+
+    /**
+    * Constructor used for creating an evaluator with the default weights.
+    */
+    public WeightedEvaluator(){
+        this(defaultWeights());
+    }
+    /**
+    * Constructor used for creating an evaluator with the given weights.
+    *
+    * @param  weights WEIGHTS weights indexed by MAN, KING ... KING_TABLE.
+    */
+    public WeightedEvaluator(int[] weights){
+        this.weights = Arrays.copyOf(weights, WEIGHTS);
+        for(int sq = 0; sq < 32; sq++){
+            int turned = 31 - sq;
+            tables[1][sq] = manValue(sq);
+            tables[0][sq] = -manValue(turned);
+            tables[3][sq] = kingValue(sq);
+            tables[2][sq] = -kingValue(turned);
+        }
+    }
+    /**
+    * Returns the weights used when no file is loaded, picked by hand.
+    *
+    * @return int[] weights.
+    */
+    static int[] defaultWeights(){
+        int[] w = new int[WEIGHTS];
+        w[MAN] = 100;
+        w[KING] = 140;
+        w[TEMPO] = 2;
+        w[BACK_RANK] = 8;
+        w[MOBILITY] = 3;
+        w[RUNAWAY] = 30;
+        w[TRADE_DOWN] = 3;
+        for(int sq = 0; sq < 32; sq++){
+            int x = Position.squareX(sq);
+            int y = Position.squareY(sq);
+            boolean centre = x >= 2 && x <= 5 && y >= 2 && y <= 5;
+            boolean edge = x == 0 || x == 7 || y == 0 || y == 7;
+            w[MAN_TABLE + sq] = (centre ? 4 : 0);
+            w[KING_TABLE + sq] = (centre ? 8 : (edge ? -8 : 0));
+        }
+        return w;
+    }
+    private int manValue(int sq){
+        return weights[MAN] + weights[MAN_TABLE + sq] + weights[TEMPO] * Position.squareY(sq);
+    }
+    private int kingValue(int sq){
+        return weights[KING] + weights[KING_TABLE + sq];
+    }
+
+    /**
+    * Reads weights from a properties file, weights missing from the file keep their default.
+    *
+    * @param file the file to read.
+    * @return WeightedEvaluator evaluator using the weights.
+    */
+    public static WeightedEvaluator load(Path file) throws IOException{
+        Properties properties = new Properties();
+        try(Reader reader = Files.newBufferedReader(file)){
+            properties.load(reader);
+        }
+        int[] w = defaultWeights();
+        for(int i = 0; i < NAMES.length; i++){
+            String value = properties.getProperty(NAMES[i]);
+            if(value != null){
+                w[i] = Integer.parseInt(value.trim());
+            }
+        }
+        readTable(properties.getProperty("manTable"), w, MAN_TABLE);
+        readTable(properties.getProperty("kingTable"), w, KING_TABLE);
+        return new WeightedEvaluator(w);
+    }
+    private static void readTable(String value, int[] w, int start){
+        if(value == null){
+            return;
+        }
+        String[] numbers = value.trim().split("\\s+");
+        if(numbers.length != 32){
+            throw new IllegalArgumentException("A table needs 32 values, found " + numbers.length);
+        }
+        for(int sq = 0; sq < 32; sq++){
+            w[start + sq] = Integer.parseInt(numbers[sq]);
+        }
+    }
+    /**
+    * Writes the weights to a properties file that load() can read.
+    *
+    * @param file the file to write.
+    */
+    public void save(Path file) throws IOException{
+        try(Writer writer = Files.newBufferedWriter(file)){
+            for(int i = 0; i < NAMES.length; i++){
+                writer.write(NAMES[i] + "=" + weights[i] + "\n");
+            }
+            writer.write("manTable=" + tableString(MAN_TABLE) + "\n");
+            writer.write("kingTable=" + tableString(KING_TABLE) + "\n");
+        }
+    }
+    private String tableString(int start){
+        StringBuilder s = new StringBuilder();
+        for(int sq = 0; sq < 32; sq++){
+            s.append(sq == 0 ? "" : " ").append(weights[start + sq]);
+        }
+        return s.toString();
+    }
+    /**
+    * Get method for a copy of the weights.
+    *
+    * @return int[] weights indexed by MAN, KING ... KING_TABLE.
+    */
+    public int[] getWeights(){
+        return Arrays.copyOf(weights, WEIGHTS);
+    }
+
+    /**
+    * Get method for the value of each piece on each square.
+    *
+    * @return int[][] values of red men, white men, red kings and white kings on squares 0-31.
+    */
+    public int[][] getPieceSquareTables(){
+        return tables;
+    }
+    /**
+    * Scores a position.
+    *
+    * @param position the position to score.
+    * @return int score, higher if white is performing well.
+    */
+    public int evaluate(Position position){
+        position.setPieceValues(tables);
+        int white = position.getWhite();
+        int red = position.getRed();
+        int kings = position.getKings();
+        int redTurned = Integer.reverse(red);
+        int whiteTurned = Integer.reverse(white);
+        int kingsTurned = Integer.reverse(kings);
+        int score = position.getHeuristic();
+        score += weights[BACK_RANK] * backRank(white & ~kings, red & ~kings, redTurned & ~kingsTurned, whiteTurned & ~kingsTurned);
+        score += weights[MOBILITY] * (mobility(white, kings, red, true) - mobility(red, kings, white, false));
+        score += weights[RUNAWAY] * (runaways(white & ~kings, red) - runaways(redTurned & ~kingsTurned, whiteTurned));
+        score += weights[TRADE_DOWN] * tradeDown(white, red);
+        return score;
+    }
+    /**
+    * Works out the feature of every weight, evaluate() is the sum of each weight times its feature.
+    *
+    * @param position the position to look at.
+    * @param features filled with WEIGHTS features.
+    */
+    public static void features(Position position, int[] features){
+        features(position.getWhite(), position.getRed(), position.getKings(), features);
+    }
+    /**
+    * Works out the feature of every weight from the masks of a position, so positions stored as masks do not have to be built.
+    *
+    * @param white mask of squares holding white pieces.
+    * @param red mask of squares holding red pieces.
+    * @param kings mask of squares holding kings of either colour.
+    * @param features filled with WEIGHTS features.
+    */
+    public static void features(int white, int red, int kings, int[] features){
+        Arrays.fill(features, 0);
+        int redTurned = Integer.reverse(red);
+        int whiteTurned = Integer.reverse(white);
+        int kingsTurned = Integer.reverse(kings);
+        addPieces(features, white & ~kings, white & kings, 1);
+        addPieces(features, redTurned & ~kingsTurned, redTurned & kingsTurned, -1);
+        features[BACK_RANK] = backRank(white & ~kings, red & ~kings, redTurned & ~kingsTurned, whiteTurned & ~kingsTurned);
+        features[MOBILITY] = mobility(white, kings, red, true) - mobility(red, kings, white, false);
+        features[RUNAWAY] = runaways(white & ~kings, red) - runaways(redTurned & ~kingsTurned, whiteTurned);
+        features[TRADE_DOWN] = tradeDown(white, red);
+    }
+    /**
+    * Adds the piece, table and tempo features of one player, given as seen from white.
+    */
+    private static void addPieces(int[] features, int men, int kings, int sign){
+        while(men != 0){
+            int sq = Integer.numberOfTrailingZeros(men);
+            men &= men - 1;
+            features[MAN] += sign;
+            features[MAN_TABLE + sq] += sign;
+            features[TEMPO] += sign * Position.squareY(sq);
+        }
+        while(kings != 0){
+            int sq = Integer.numberOfTrailingZeros(kings);
+            kings &= kings - 1;
+            features[KING] += sign;
+            features[KING_TABLE + sq] += sign;
+        }
+    }
+    /**
+    * Returns the back row guards of white less those of red. A guard only counts while the opponent has men that could be crowned.
+    */
+    private static int backRank(int whiteMen, int redMen, int redMenTurned, int whiteMenTurned){
+        int score = 0;
+        if(redMen != 0){
+            score += Integer.bitCount(whiteMen & OWN_BACK_ROW);
+        }
+        if(whiteMen != 0){
+            score -= Integer.bitCount(redMenTurned & OWN_BACK_ROW);
+        }
+        return score;
+    }
+    /**
+    * Returns the number of normal moves of a player.
+    */
+    private static int mobility(int own, int kings, int opp, boolean isWhite){
+        int empty = ~(own | opp);
+        int count = 0;
+        for(int d = 0; d < 4; d++){
+            boolean down = d == Position.DOWN_LEFT || d == Position.DOWN_RIGHT;
+            int movers = (down == isWhite ? own : own & kings);
+            count += Integer.bitCount(Position.shift(movers, d) & empty);
+        }
+        return count;
+    }
+    /**
+    * Returns the number of men, seen from white, past their own half with no opponent piece on any square in front of them.
+    */
+    private static int runaways(int men, int opp){
+        int count = 0;
+        men &= ~OWN_HALF;
+        while(men != 0){
+            int sq = Integer.numberOfTrailingZeros(men);
+            men &= men - 1;
+            int front = 1 << sq;
+            int cone = 0;
+            for(int row = Position.squareY(sq); row < 7; row++){
+                front = Position.shift(front, Position.DOWN_LEFT) | Position.shift(front, Position.DOWN_RIGHT);
+                cone |= front;
+            }
+            if((cone & opp) == 0){
+                count++;
+            }
+        }
+        return count;
+    }
+    /**
+    * Returns the pieces off the board, counted for the player with more pieces.
+    */
+    private static int tradeDown(int white, int red){
+        int w = Integer.bitCount(white);
+        int r = Integer.bitCount(red);
+        return Integer.signum(w - r) * (24 - w - r);
+    }
+}
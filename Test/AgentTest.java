@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how a ponder search reacts to ponderHit() and stop() sent from another thread.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class AgentTest
+{
+    /**
+    * Makes an agent that would search to the deepest ply, so only the time budget or stop() ends its searches.
+    */
+    private static Agent timedAgent(){
+        Agent agent = new Agent();
+        agent.setDepth(Agent.MAX_PLY);
+        agent.setTimeLimit(50);
+        return agent;
+    }
+
+    @Test
+    public void ponderHitBeforeQueuedPonderStartsMakesItTimed(){
+        Agent agent = timedAgent();
+        agent.queueSearch(true);
+        agent.ponderHit();
+        //the ponder search starts as a normal search and ends when its 50 ms are used.
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> agent.ponder(new Position()));
+    }
+
+    @Test
+    public void latePonderHitIsNotKeptForTheNextPonder() throws Exception{
+        Agent agent = timedAgent();
+        agent.setDepth(3);
+        agent.ponder(new Position());//ends at depth 3.
+        agent.ponderHit();//arrives after the ponder search has finished.
+        agent.setDepth(Agent.MAX_PLY);
+        Thread ponder = new Thread(() -> agent.ponder(new Position()));
+        ponder.start();
+        ponder.join(500);
+        assertTrue(ponder.isAlive(), "the next ponder search must wait for ponderHit() or stop()");
+        agent.stop();
+        ponder.join(5000);
+        assertFalse(ponder.isAlive());
+    }
+
+    @Test
+    public void stopOfQueuedPonderDropsItsPonderHit() throws Exception{
+        Agent agent = timedAgent();
+        agent.queueSearch(true);
+        agent.ponderHit();
+        agent.stop();//the ponder search is cancelled before it starts.
+        agent.ponder(new Position());
+        Thread ponder = new Thread(() -> agent.ponder(new Position()));
+        ponder.start();
+        ponder.join(500);
+        assertTrue(ponder.isAlive(), "a later ponder search must not use the cancelled ponder hit");
+        agent.stop();
+        ponder.join(5000);
+        assertFalse(ponder.isAlive());
+    }
+}
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the hot path of the search does no heap allocation: move generation into a preallocated buffer and Searcher.minimax. The bytes
+ * the test thread has allocated are read from the JVM's per thread counter before and after, once the code has been warmed up.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class AllocationTest
+{
+    //opening, middlegame, king endgame and a position with a multi kill move.
+    final static String[] POSITIONS = {
+        "R:W1,2,3,4,5,6,7,8,9,10,11,12:R21,22,23,24,25,26,27,28,29,30,31,32",
+        "W:W1,4,10,11,12,15:R5,18,21,22,26,29",
+        "R:W5,K27:RK4,K11,28,29",
+        "R:W6,7,15,16,24:R27,28,29,30,31,32"
+    };
+    final static int WARMUP = 2000;//runs before measuring, so the JIT has compiled the code and every lazy set up has happened.
+
+    private com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    private long sink;//results are added here so the work cannot be removed.
+
+    /**
+    * Reads the bytes allocated by the test thread so far.
+    */
+    private long allocated(){
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    /**
+    * Reads the bytes allocated by reading the counter itself, taken off every measurement.
+    */
+    private long counterCost(){
+        long before = allocated();
+        return allocated() - before;
+    }
+
+    @Test
+    public void generateMovesAllocatesNothing(){
+        Position[] positions = new Position[POSITIONS.length];
+        for(int i = 0; i < positions.length; i++){
+            positions[i] = Position.fromFen(POSITIONS[i]);
+        }
+        long[] moves = new long[Position.MAX_MOVES];
+        for(int run = 0; run < WARMUP * 10; run++){
+            for(Position p: positions){
+                sink += p.generateMoves(moves);
+            }
+        }
+        long cost = counterCost();
+        long before = allocated();
+        for(int run = 0; run < 1000; run++){
+            for(Position p: positions){
+                sink += p.generateMoves(moves);
+            }
+        }
+        assertEquals(0, allocated() - before - cost, "bytes allocated by Position.generateMoves");
+    }
+
+    @Test
+    public void minimaxAllocatesNothing(){
+        Agent agent = new Agent();
+        agent.setHashSize(1);
+        agent.setTimeLimit(Long.MAX_VALUE / 2);//only the depth limits the search.
+        Searcher searcher = new Searcher(agent, false);
+        Position[] positions = new Position[POSITIONS.length];
+        for(int i = 0; i < positions.length; i++){
+            positions[i] = Position.fromFen(POSITIONS[i]);
+        }
+        for(int run = 0; run < WARMUP / 10; run++){
+            for(Position p: positions){
+                agent.getTranspositionTable().clear();
+                sink += searcher.minimax(p, 6, -10000, 10000, p.getTurn() == PieceColor.WHITE);
+            }
+        }
+        long cost = counterCost();
+        long before = allocated();
+        for(int run = 0; run < 20; run++){
+            for(Position p: positions){
+                agent.getTranspositionTable().clear();
+                sink += searcher.minimax(p, 6, -10000, 10000, p.getTurn() == PieceColor.WHITE);
+            }
+        }
+        assertEquals(0, allocated() - before - cost, "bytes allocated by Searcher.minimax");
+    }
+}
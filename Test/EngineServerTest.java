@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs scripts of commands through an EngineServer session as if they were piped to it, and checks the replies.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class EngineServerTest
+{
+    /**
+    * Runs a script and returns the bestmove and readyok lines written, in order. Fails if the session has not ended within 10 seconds.
+    */
+    private static List<String> run(String script){
+        StringWriter out = new StringWriter();
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> new EngineServer(new BufferedReader(new StringReader(script)), new PrintWriter(out)).run());
+        List<String> replies = new ArrayList<String>();
+        for(String line: out.toString().split("\\R")){
+            if(line.startsWith("bestmove") || line.equals("readyok") || line.startsWith("info string")){
+                replies.add(line);
+            }
+        }
+        return replies;
+    }
+
+    @Test
+    public void stopRightAfterGoInfinite(){
+        //the stop usually reaches the agent before the search thread has started the search.
+        for(int i = 0; i < 20; i++){
+            List<String> replies = run("position startpos\ngo infinite\nstop\nisready\nquit\n");
+            assertEquals(2, replies.size(), replies.toString());
+            assertTrue(replies.get(0).startsWith("bestmove ") && !replies.get(0).equals("bestmove none"), replies.toString());
+            assertEquals("readyok", replies.get(1));
+        }
+    }
+
+    @Test
+    public void stopRightAfterGoPonder(){
+        for(int i = 0; i < 20; i++){
+            List<String> replies = run("position startpos\ngo ponder\nstop\nisready\nquit\n");
+            assertEquals(2, replies.size(), replies.toString());
+            assertTrue(replies.get(0).startsWith("bestmove "), replies.toString());
+            assertEquals("readyok", replies.get(1));
+        }
+    }
+
+    @Test
+    public void stopOnlyEndsTheQueuedSearch(){
+        //a stop before the queued search starts ends it after its first iteration, the search after it is not stopped.
+        Agent agent = new Agent();
+        agent.setDepth(4);
+        agent.setTimeLimit(Long.MAX_VALUE / 2);
+        agent.queueSearch(false);
+        agent.stop();
+        assertTrue(agent.search(new Position()) != 0);
+        assertEquals(1, agent.getCompletedDepth());
+        agent.search(new Position());
+        assertEquals(4, agent.getCompletedDepth());
+    }
+
+    @Test
+    public void goDepthZeroStillFindsAMove(){
+        List<String> replies = run("position startpos\ngo depth 0\nstop\nisready\nquit\n");
+        assertEquals(2, replies.size(), replies.toString());
+        assertTrue(replies.get(0).startsWith("bestmove ") && !replies.get(0).equals("bestmove none"), replies.toString());
+    }
+
+    @Test
+    public void endgameDatabaseScoresAreWins(){
+        assertEquals("mate 2", EngineServer.scoreString(EndgameDatabase.score((byte)3)));
+        assertEquals("mate -2", EngineServer.scoreString(EndgameDatabase.score((byte)-4)));
+        assertEquals("mate 63", EngineServer.scoreString(EndgameDatabase.score((byte)EndgameDatabase.MAX_DISTANCE)));
+        assertEquals("mate 1", EngineServer.scoreString(Searcher.WIN_SCORE - 1));
+        assertEquals("cp -250", EngineServer.scoreString(-250));
+    }
+}
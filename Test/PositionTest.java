@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks reading and writing positions as FEN style strings.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class PositionTest
+{
+    @Test
+    public void fromFenReadsWhatToFenWrites(){
+        for(String fen: new String[]{"R:W1,2,3,4,5,6,7,8,9,10,11,12:R21,22,23,24,25,26,27,28,29,30,31,32", "W:W1,4,10,K11:RK5,18,32", "R:W5:R"}){
+            assertEquals(fen, Position.fromFen(fen).toFen());
+        }
+        assertEquals(new Position().toFen(), Position.fromFen(new Position().toFen()).toFen());
+    }
+
+    @Test
+    public void fromFenRejectsBadPositions(){
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("garbage"));//no player to move.
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:X1:R2"));//no such colour.
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:W33:R1"));//off the board.
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:W0:R1"));
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:Wx:R1"));//not a number.
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:W5:R5"));//two pieces on one square.
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:W5,K5:R1"));
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:W5:R1"));//a red man on the row it is crowned on.
+        assertThrows(IllegalArgumentException.class, () -> Position.fromFen("R:W30:R5"));//a white man on the row it is crowned on.
+        assertEquals("R:WK30:RK1", Position.fromFen("R:WK30:RK1").toFen());
+    }
+
+    @Test
+    public void parseMoveNeedsTheWholePath(){
+        //white on 2 can take 6 and 14 landing on 9 then 18, or 7 and 15 landing on 11 then 18.
+        Position position = Position.fromFen("W:W2:R6,7,14,15");
+        long left = position.parseMove("2x9x18");
+        long right = position.parseMove("2x11x18");
+        assertEquals("2x18", Position.moveToString(left));
+        assertEquals("2x18", Position.moveToString(right));
+        assertNotEquals(left, right);
+        assertNotEquals(0, position.parseMove("2x18"));//without a path either move will do.
+        assertEquals(0, position.parseMove("2x10x18"));//lands on a square neither move does.
+        assertEquals(0, position.parseMove("2x9x11x18"));
+    }
+}
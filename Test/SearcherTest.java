@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the counters the searcher keeps about its re-searches.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class SearcherTest
+{
+    /**
+    * Scores every position with a large value taken from its hash, so the root score jumps from one iteration to the next and the aspiration
+    * window fails again and again.
+    */
+    private static class NoisyEvaluator implements Evaluator
+    {
+        public int[][] getPieceSquareTables(){
+            return Position.MATERIAL_VALUES;
+        }
+        public int evaluate(Position position){
+            return (int)Math.floorMod(position.getHash(), 4001L) - 2000;
+        }
+    }
+
+    @Test
+    public void aspirationFailuresAreTimedAndBalanced(){
+        Agent agent = new Agent();
+        agent.setEvaluator(new NoisyEvaluator());
+        agent.setLmr(false);
+        agent.setPvs(false);//only the aspiration window re-searches.
+        agent.setDepth(8);
+        agent.setTimeLimit(Long.MAX_VALUE / 2);
+        agent.search(new Position());
+        assertTrue(agent.getAspirationResearches() > agent.getCompletedDepth(), "the window should fail several times in some iterations");
+        assertEquals(0, agent.main.researching);
+        assertTrue(agent.main.researchTime > 0);
+    }
+
+    @Test
+    public void reSearchTimeCountsAfterRepeatedAspirationFailures(){
+        //LMR and PVS re-searches after the aspiration failures are only timed if the counter of running re-searches is back to 0.
+        Agent agent = new Agent();
+        agent.setEvaluator(new NoisyEvaluator());
+        agent.setDepth(8);
+        agent.setTimeLimit(Long.MAX_VALUE / 2);
+        agent.search(new Position());
+        assertEquals(0, agent.main.researching);
+        assertTrue(agent.getPvsResearches() + agent.getLmrResearches() > 0);
+        assertTrue(agent.main.researchTime > 0);
+    }
+}
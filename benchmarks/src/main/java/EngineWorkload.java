@@ -0,0 +1,94 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EngineWorkload does the work of the benchmarks on one stored position, see benchmarks.Workload. The positions are an opening, a middlegame,
+ * a king endgame and a position with a multi kill move.
+ *
+ * The Board methods use the Board, Piece and Tile objects the game is played on, the Position methods use the bitboards the agent searches on.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class EngineWorkload implements benchmarks.Workload
+{
+    final static Map<String, String> POSITIONS = Map.of(
+        "opening", "R:W1,2,3,4,5,6,7,8,9,10,11,12:R21,22,23,24,25,26,27,28,29,30,31,32",
+        "middlegame", "W:W1,4,10,11,12,15:R5,18,21,22,26,29",
+        "kingEndgame", "R:W5,K27:RK4,K11,28,29",
+        "multiKill", "R:W6,7,15,16,24:R27,28,29,30,31,32"
+    );
+
+    private Position position;
+    private Board board;
+    private List<Move> boardMoves;//moves of the board, made once so Move.isLegal is measured alone.
+    private long[] moves = new long[Position.MAX_MOVES];
+    private Agent agent = new Agent();
+    private Searcher searcher;
+
+    /**
+    * Constructor used for creating the work on a stored position.
+    *
+    * @param  name name of the position.
+    */
+    public EngineWorkload(String name){
+        String fen = POSITIONS.get(name);
+        if(fen == null){
+            throw new IllegalArgumentException("Unknown position: " + name);
+        }
+        position = Position.fromFen(fen);
+        board = new Board(position);
+        boardMoves = board.getAllMoves();
+        agent.setHashSize(1);
+        agent.setTimeLimit(Long.MAX_VALUE / 2);//only the depth limits the search.
+        searcher = new Searcher(agent, false);
+    }
+
+    public int boardGetAllMoves(){
+        return board.getAllMoves().size();
+    }
+    public int boardGetMoveResults(){
+        return board.getMoveResults(boardMoves.get(0)).getTurn().ordinal();
+    }
+    public int boardGetHeuristic(){
+        return board.getHeuristic();
+    }
+    public int moveIsLegal(){
+        int legal = 0;
+        for(Move m: boardMoves){
+            legal += (m.isLegal(board.getTurn()) ? 1 : 0);
+        }
+        return legal;
+    }
+    public int positionGetAllMoves(){
+        return position.getAllMoves().length;
+    }
+    public int positionGenerateMoves(){
+        return position.generateMoves(moves);
+    }
+    public long positionMoveUndo(){
+        long hash = 0;
+        int count = position.generateMoves(moves);
+        for(int i = 0; i < count; i++){
+            long undo = position.movePiece(moves[i]);
+            hash += position.getHash();
+            position.undoMove(moves[i], undo);
+        }
+        return hash;
+    }
+    public int positionGetHeuristic(){
+        return position.getHeuristic();
+    }
+    public long minimax(int depth){
+        agent.getTranspositionTable().clear();//every run searches the same tree.
+        long nodes = searcher.nodes;
+        searcher.minimax(position, depth, -10000, 10000, position.getTurn() == PieceColor.WHITE);
+        return searcher.nodes - nodes;
+    }
+    public long agentSearch(int depth){
+        agent.getTranspositionTable().clear();
+        agent.setDepth(depth);
+        agent.search(new Position(position));
+        return agent.getNodes();
+    }
+}
@@ -0,0 +1,27 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler, so every result has its allocation rate and bytes allocated per operation next to it. Any JMH
+ * command line options can be given, for example a regular expression to run only some benchmarks or -p depth=6.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar [JMH options]
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public class Benchmarks
+{
+    /**
+    * Runs the benchmarks.
+    *
+    * @param args JMH options.
+    */
+    public static void main(String[] args) throws Exception{
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks move generation, making moves and evaluation on each stored position, with the Board objects of the game and with the bitboards
+ * of the agent.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmarks
+{
+    @Param({"opening", "middlegame", "kingEndgame", "multiKill"})
+    public String position;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp(){
+        workload = Workload.create(position);
+    }
+
+    @Benchmark
+    public int boardGetAllMoves(){
+        return workload.boardGetAllMoves();
+    }
+    @Benchmark
+    public int boardGetMoveResults(){
+        return workload.boardGetMoveResults();
+    }
+    @Benchmark
+    public int boardGetHeuristic(){
+        return workload.boardGetHeuristic();
+    }
+    @Benchmark
+    public int moveIsLegal(){
+        return workload.moveIsLegal();
+    }
+    @Benchmark
+    public int positionGetAllMoves(){
+        return workload.positionGetAllMoves();
+    }
+    @Benchmark
+    public int positionGenerateMoves(){
+        return workload.positionGenerateMoves();
+    }
+    @Benchmark
+    public long positionMoveUndo(){
+        return workload.positionMoveUndo();
+    }
+    @Benchmark
+    public int positionGetHeuristic(){
+        return workload.positionGetHeuristic();
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the search of each stored position to fixed depths, both Searcher.minimax alone and Agent.search() with iterative deepening. Next
+ * to the searches per second it reports the nodes per second as the secondary result nodes.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmarks
+{
+    @Param({"opening", "middlegame", "kingEndgame", "multiKill"})
+    public String position;
+    @Param({"4", "6", "8"})
+    public int depth;
+
+    private Workload workload;
+
+    /**
+    * Counts the nodes searched, JMH reports them per second.
+    */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes
+    {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset(){
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp(){
+        workload = Workload.create(position);
+    }
+
+    @Benchmark
+    public long minimax(Nodes counter){
+        long nodes = workload.minimax(depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+    @Benchmark
+    public long agentSearch(Nodes counter){
+        long nodes = workload.agentSearch(depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+}
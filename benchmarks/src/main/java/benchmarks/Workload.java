@@ -0,0 +1,49 @@
+package benchmarks;
+
+/**
+ * The work the benchmarks measure, done on one of the stored positions. The game is written in the default package, which JMH benchmarks
+ * cannot be in and named packages cannot import, so the work is done by EngineWorkload in the default package and the benchmarks call it
+ * through this interface. Every method does one operation and returns a result the benchmark hands to a Blackhole, or the nodes searched.
+ *
+ * @author Slade Brooks
+ * @version 1
+ */
+public interface Workload
+{
+    /**
+    * Creates the workload for a stored position.
+    *
+    * @param position name of the position: opening, middlegame, kingEndgame or multiKill.
+    * @return Workload the work on that position.
+    */
+    static Workload create(String position){
+        try{
+            return (Workload)Class.forName("EngineWorkload").getDeclaredConstructor(String.class).newInstance(position);
+        }catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Cannot create the workload for " + position, e);
+        }
+    }
+
+    int boardGetAllMoves();
+    int boardGetMoveResults();
+    int boardGetHeuristic();
+    int moveIsLegal();
+    int positionGetAllMoves();
+    int positionGenerateMoves();
+    long positionMoveUndo();
+    int positionGetHeuristic();
+    /**
+    * Searches the position with Searcher.minimax alone, without the set up of Agent.search(), the table is cleared first.
+    *
+    * @param depth depth searched.
+    * @return long nodes searched.
+    */
+    long minimax(int depth);
+    /**
+    * Searches the position with Agent.search() with iterative deepening, the table is cleared first.
+    *
+    * @param depth deepest iteration.
+    * @return long nodes searched.
+    */
+    long agentSearch(int depth);
+}